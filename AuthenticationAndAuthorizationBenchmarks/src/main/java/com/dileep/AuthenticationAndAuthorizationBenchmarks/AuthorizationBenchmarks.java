@@ -0,0 +1,69 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.Authority;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MaskAuthorizationManager;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authority lookup and the access rule of GET /api/products/getProduct/{id}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmarks {
+
+    private MyUserDetails userDetails;
+    private Authentication viewer;
+    private Authentication customerService;
+    private Authentication denied;
+
+    // same rule as SecurityConfig uses for /api/products/getProduct/*
+    private final AuthorizationManager<RequestAuthorizationContext> getProductAccess =
+            MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW, Authority.ROLE_CUSTOMER_SERVICE);
+
+    @Setup
+    public void setUp() {
+        userDetails = new MyUserDetails("benchmark-user", "", List.of("PRODUCT_VIEW", "PRODUCT_CREATE", "PRODUCT_UPDATE", "PRODUCT_DELETE"));
+        viewer = authenticated(userDetails);
+        customerService = authenticated(new MyUserDetails("support-user", "", List.of("ROLE_CUSTOMER_SERVICE")));
+        denied = authenticated(new MyUserDetails("other-user", "", List.of("PRODUCT_CREATE")));
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return userDetails.getAuthorities();
+    }
+
+    @Benchmark
+    public AuthorizationDecision getProductAccessGranted() {
+        return getProductAccess.check(() -> viewer, null);
+    }
+
+    @Benchmark
+    public AuthorizationDecision getProductAccessByRole() {
+        return getProductAccess.check(() -> customerService, null);
+    }
+
+    @Benchmark
+    public AuthorizationDecision getProductAccessDenied() {
+        return getProductAccess.check(() -> denied, null);
+    }
+
+    private static Authentication authenticated(MyUserDetails user) {
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+}
@@ -0,0 +1,22 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Main class of benchmarks.jar: the usual JMH command line, with the GC profiler always on
+ * so every result also reports the allocation rate (gc.alloc.rate.norm = bytes per operation).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(args));
+        if (!arguments.contains("gc")) {
+            arguments.add(0, "-prof");
+            arguments.add(1, "gc");
+        }
+        Main.main(arguments.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,164 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.RevokedTokenDenylist;
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.VerifiedTokenCache;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PermissionDictionary;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PublicEndpoints;
+import com.dileep.JwtAuthenticationAndAuthorization.Filters.BearerTokenPrecheck;
+import com.dileep.JwtAuthenticationAndAuthorization.Filters.JwtFilter;
+import com.dileep.JwtAuthenticationAndAuthorization.Filters.TokenRejectionMetrics;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.JWTService;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting and the full JwtFilter path for one authenticated GET /api/products request.
+ * The filter runs against mock servlet objects, nothing touches a database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtBenchmarks {
+
+    private JWTService jwtService;
+    private MyUserDetails userDetails;
+    private String token;
+    // not a JWT at all, and a well-formed token with a forged signature
+    private String malformedToken;
+    private String forgedToken;
+    // same user and key, roles as the compact "perms" bitmask
+    private String compactToken;
+    private SigningKeyRing keyRing;
+
+    // production filter, tokens are served from the verified token cache after the first request
+    private JwtFilter cachedFilter;
+    // same filter with a cache that never hits, every request parses and verifies the signature
+    private JwtFilter uncachedFilter;
+    // never-hitting cache, JWTService with the permission dictionary
+    private JwtFilter uncachedCompactFilter;
+
+    @Setup
+    public void setUp() {
+        keyRing = SigningKeyRing.ephemeral();
+        jwtService = new JWTService(keyRing, Duration.ofMinutes(15));
+        userDetails = new MyUserDetails("benchmark-user", "", List.of("PRODUCT_VIEW", "PRODUCT_CREATE", "PRODUCT_UPDATE", "PRODUCT_DELETE"));
+        token = jwtService.generateToken(userDetails);
+        malformedToken = "not-a-jwt";
+        forgedToken = token.substring(0, token.lastIndexOf('.') + 1) + "A".repeat(43);
+
+        JWTService compactJwtService = new JWTService(keyRing, Duration.ofMinutes(15), new PermissionDictionary(1,
+                List.of("PRODUCT_VIEW", "PRODUCT_CREATE", "PRODUCT_UPDATE", "PRODUCT_DELETE", "ROLE_CUSTOMER_SERVICE"), true));
+        compactToken = compactJwtService.generateToken(userDetails);
+
+        cachedFilter = filter(jwtService, new VerifiedTokenCache(10_000, new SimpleMeterRegistry()));
+        uncachedFilter = filter(jwtService, neverHittingCache());
+        uncachedCompactFilter = filter(compactJwtService, neverHittingCache());
+    }
+
+    private static VerifiedTokenCache neverHittingCache() {
+        return new VerifiedTokenCache(1, new SimpleMeterRegistry()) {
+            @Override
+            public CachedAuthentication get(String token) {
+                return null;
+            }
+        };
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public Authentication filterCachedToken() throws ServletException, IOException {
+        return doFilter(cachedFilter);
+    }
+
+    @Benchmark
+    public Authentication filterUncachedToken() throws ServletException, IOException {
+        return doFilter(uncachedFilter);
+    }
+
+    // smaller payload to decode, authorities come from the per-bitmask cache
+    @Benchmark
+    public Authentication filterUncachedCompactToken() throws ServletException, IOException {
+        return doFilter(uncachedCompactFilter, compactToken);
+    }
+
+    // rejected by the structure check, 401 without any parsing
+    @Benchmark
+    public Authentication filterMalformedToken() throws ServletException, IOException {
+        return doFilter(uncachedFilter, malformedToken);
+    }
+
+    // passes every cheap check, rejected by the signature check
+    @Benchmark
+    public Authentication filterForgedToken() throws ServletException, IOException {
+        return doFilter(uncachedFilter, forgedToken);
+    }
+
+    // public endpoint with a token attached, the filter is skipped before the header is read
+    @Benchmark
+    public Authentication filterPublicEndpoint() throws ServletException, IOException {
+        return doFilter(uncachedFilter, "/api/User/login", forgedToken);
+    }
+
+    private Authentication doFilter(JwtFilter filter) throws ServletException, IOException {
+        return doFilter(filter, token);
+    }
+
+    private Authentication doFilter(JwtFilter filter, String bearerToken) throws ServletException, IOException {
+        return doFilter(filter, "/api/products", bearerToken);
+    }
+
+    // the filter only defers verification, reading the authentication afterwards is what the
+    // authorization filter does and runs the actual check; a rejection surfaces here as an exception
+    private Authentication doFilter(JwtFilter filter, String path, String bearerToken) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + bearerToken);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        try {
+            return SecurityContextHolder.getContext().getAuthentication();
+        } catch (AuthenticationException e) {
+            return null;
+        }
+    }
+
+    private JwtFilter filter(JWTService jwtService, VerifiedTokenCache tokenCache) {
+        JwtFilter filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "tokenCache", tokenCache);
+        ReflectionTestUtils.setField(filter, "revokedTokens", new RevokedTokenDenylist(100_000, 0.01, new SimpleMeterRegistry()));
+        BearerTokenPrecheck precheck = new BearerTokenPrecheck();
+        ReflectionTestUtils.setField(precheck, "keyRing", keyRing);
+        ReflectionTestUtils.setField(precheck, "maxLength", 4096);
+        ReflectionTestUtils.setField(filter, "precheck", precheck);
+        ReflectionTestUtils.setField(filter, "publicEndpoints", new PublicEndpoints());
+        ReflectionTestUtils.setField(filter, "rejectionMetrics", new TokenRejectionMetrics(new SimpleMeterRegistry()));
+        return filter;
+    }
+}
@@ -0,0 +1,51 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PasswordEncoderCalibration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A login through DaoAuthenticationProvider: user lookup plus BCrypt verify.
+ * The user comes from memory, so the score is the password check itself.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordBenchmarks {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    @Param({"10", "12"})
+    private int bcryptStrength;
+
+    private DaoAuthenticationProvider authenticationProvider;
+
+    @Setup
+    public void setUp() {
+        // same encoder the application builds in SecurityConfig
+        PasswordEncoder encoder = PasswordEncoderCalibration.delegatingEncoder("bcrypt", bcryptStrength);
+        InMemoryUserDetailsManager userDetailsService = new InMemoryUserDetailsManager(User.withUsername("benchmark-user")
+                .password(encoder.encode(PASSWORD))
+                .authorities("PRODUCT_VIEW")
+                .build());
+
+        authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
+        authenticationProvider.setPasswordEncoder(encoder);
+    }
+
+    @Benchmark
+    public Authentication authenticate() {
+        return authenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("benchmark-user", PASSWORD));
+    }
+}
@@ -0,0 +1,56 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.RevokedTokenDenylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request revocation check of JwtFilter, with a denylist of 100 000 revoked tokens.
+ * Almost every request carries a token that was never revoked, the Bloom filter alone answers those.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RevocationBenchmarks {
+
+    private RevokedTokenDenylist denylist;
+    private String[] liveTokenIds;
+    private String revokedTokenId;
+
+    @Setup
+    public void setUp() {
+        denylist = new RevokedTokenDenylist(100_000, 0.01, new SimpleMeterRegistry());
+        Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+        for (int i = 0; i < 100_000; i++) {
+            revokedTokenId = UUID.randomUUID().toString();
+            denylist.add(revokedTokenId, expiresAt);
+        }
+        liveTokenIds = new String[1024];
+        for (int i = 0; i < liveTokenIds.length; i++) {
+            liveTokenIds[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public boolean liveToken(Cursor cursor) {
+        return denylist.isRevoked(liveTokenIds[cursor.next++ & (liveTokenIds.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return denylist.isRevoked(revokedTokenId);
+    }
+}
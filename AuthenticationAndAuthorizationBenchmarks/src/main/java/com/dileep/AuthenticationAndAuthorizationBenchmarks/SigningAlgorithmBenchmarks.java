@@ -0,0 +1,49 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.VerifiedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.JWTService;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningAlgorithm;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningKeyRing;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each signing algorithm: minting a token, and the full parse + signature check of one
+ * (what a downstream service pays per token without a cache, and JwtFilter pays on a token cache miss).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningAlgorithmBenchmarks {
+
+    @Param({"HS256", "EdDSA", "ES256"})
+    private SigningAlgorithm algorithm;
+
+    private JWTService jwtService;
+    private MyUserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService(SigningKeyRing.ephemeral(algorithm), Duration.ofMinutes(15));
+        userDetails = new MyUserDetails("benchmark-user", "", List.of("PRODUCT_VIEW", "PRODUCT_CREATE", "PRODUCT_UPDATE", "PRODUCT_DELETE"));
+        token = jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return jwtService.verify(token);
+    }
+}
@@ -0,0 +1,47 @@
+package com.dileep.AuthenticationAndAuthorizationBenchmarks;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.JWTService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting with one JWTService shared by all benchmark threads, as in the application.
+ * Run with -t 1, 2, 4 ... to check that throughput scales with the threads.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenMintingBenchmarks {
+
+    private JWTService jwtService;
+    private MyUserDetails userDetails;
+    private List<MyUserDetails> serviceAccounts;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JWTService();
+        userDetails = new MyUserDetails("benchmark-user", "", List.of("PRODUCT_VIEW", "PRODUCT_CREATE", "PRODUCT_UPDATE", "PRODUCT_DELETE"));
+        serviceAccounts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            serviceAccounts.add(new MyUserDetails("service-account-" + i, "", List.of("PRODUCT_VIEW")));
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails);
+    }
+
+    // 100 tokens per operation
+    @Benchmark
+    public List<String> generateTokens() {
+        return jwtService.generateTokens(serviceAccounts);
+    }
+}
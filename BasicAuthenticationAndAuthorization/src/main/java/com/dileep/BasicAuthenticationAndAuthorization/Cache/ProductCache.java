@@ -0,0 +1,95 @@
+package com.dileep.BasicAuthenticationAndAuthorization.Cache;
+
+import com.dileep.BasicAuthenticationAndAuthorization.DTO.ProductView;
+import com.dileep.BasicAuthenticationAndAuthorization.Entity.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of ProductRepository, holding ProductView records (immutable, safe to share).
+ * Products are cached by id (a missing id is cached as empty). The full product list is not cached, an entry holding
+ * the whole catalog can't be bounded by maximum-size and would keep every row on the heap for the ttl.
+ * ProductService keeps it in step with its own writes: the id entry is replaced or dropped.
+ * The ttl only bounds staleness for changes made outside this instance.
+ *
+ * Concurrent misses for the same key share one query: the first caller puts an incomplete future into the cache
+ * and runs the query on its own thread, everyone else waits on that future.
+ */
+@Component
+public class ProductCache {
+
+    private final AsyncCache<Long, Optional<ProductView>> products;
+
+    public ProductCache(@Value("${product-cache.ttl:10m}") Duration ttl,
+                        @Value("${product-cache.maximum-size:10000}") long maximumSize,
+                        MeterRegistry meterRegistry) {
+        this.products = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products.by-id");
+    }
+
+    public Optional<ProductView> getById(Long id, Supplier<Optional<ProductView>> loader) {
+        return getOrLoad(products, id, loader);
+    }
+
+    /**
+     * caches the saved state of a product
+     */
+    public void put(Product product) {
+        products.put(product.getId(), CompletableFuture.completedFuture(Optional.of(ProductView.from(product))));
+    }
+
+    /**
+     * drops a deleted product
+     */
+    public void evict(Long id) {
+        products.synchronous().invalidate(id);
+    }
+
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future != loading) {
+            return join(future);
+        }
+
+        // the query runs on the caller's thread outside any cache lock,
+        // a failed future is dropped by the cache and a write evicting the key meanwhile just discards this one.
+        // Errors complete it too, otherwise every caller waiting on the key would block forever
+        try {
+            V value = loader.get();
+            loading.complete(value);
+            return value;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.dileep.BasicAuthenticationAndAuthorization.Configuartion;
+
+/**
+ * Every authority an authorization rule can name, the single source of AuthorityRegistry's table.
+ * Rules (URL rules, @RequiresAuthority, per-item checks) name these constants, so a misspelt authority does not compile.
+ * The bit of an authority is its ordinal: append new ones at the end, at most 64.
+ */
+public enum Authority {
+    PRODUCT_VIEW,
+    PRODUCT_CREATE,
+    PRODUCT_UPDATE,
+    PRODUCT_DELETE,
+    ROLE_CUSTOMER_SERVICE
+}
@@ -0,0 +1,125 @@
+package com.dileep.BasicAuthenticationAndAuthorization.Configuartion;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixed table of the authorities the application checks, built from the Authority enum.
+ * PRODUCT_VIEW, ROLE_CUSTOMER_SERVICE, ... are created once and shared by every user,
+ * so building a user's authorities never allocates a new authority object for them.
+ *
+ * Every known authority also has a bit, which lets authorization rules
+ * compare a principal's authorities with a single mask test.
+ *
+ * The table is built once and never grows: roles come from signup as free text, so any other
+ * name gets a plain per-user instance and no bit. No rule can name such an authority,
+ * MyUserDetails.hasAuthority still finds it in the user's authority set.
+ */
+public final class AuthorityRegistry {
+
+    private static final Map<String, Entry> AUTHORITIES = buildTable(Authority.values());
+
+    private AuthorityRegistry() {
+    }
+
+    /**
+     * returns the shared instance of a known authority, a new one for any other name (never registered)
+     */
+    public static GrantedAuthority intern(String authority) {
+        Entry entry = AUTHORITIES.get(authority);
+        return entry != null ? entry.authority : new SimpleGrantedAuthority(authority);
+    }
+
+    /**
+     * returns the bit of the given authority, 0 when it is not a known authority
+     */
+    public static long bit(String authority) {
+        Entry entry = AUTHORITIES.get(authority);
+        return entry != null ? entry.bit : 0L;
+    }
+
+    /**
+     * the bit of a rule's authority, every constant has one
+     */
+    public static long bit(Authority authority) {
+        return 1L << authority.ordinal();
+    }
+
+    /**
+     * parsing comma separated roles ("PRODUCT_VIEW, PRODUCT_CREATE") into an immutable, deduplicated set
+     */
+    public static Set<GrantedAuthority> parse(String roles) {
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        if (roles != null) {
+            for (String role : roles.split(",")) {
+                add(authorities, role);
+            }
+        }
+        return Collections.unmodifiableSet(authorities);
+    }
+
+    public static Set<GrantedAuthority> of(Collection<String> roles) {
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (String role : roles) {
+            add(authorities, role);
+        }
+        return Collections.unmodifiableSet(authorities);
+    }
+
+    /**
+     * combined bits of the given authorities, unknown ones add nothing
+     */
+    public static long mask(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0L;
+        for (GrantedAuthority authority : authorities) {
+            mask |= bit(authority.getAuthority());
+        }
+        return mask;
+    }
+
+    /**
+     * precomputed mask of MyUserDetails principals, computed from the authorities otherwise
+     */
+    public static long mask(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof MyUserDetails user) {
+            return user.getAuthorityMask();
+        }
+        return mask(authentication.getAuthorities());
+    }
+
+    private static Map<String, Entry> buildTable(Authority[] authorities) {
+        if (authorities.length > Long.SIZE) {
+            throw new IllegalStateException("At most " + Long.SIZE + " authorities fit in a mask, got " + authorities.length);
+        }
+        Map<String, Entry> table = new HashMap<>();
+        for (Authority authority : authorities) {
+            table.put(authority.name(), new Entry(authority.name(), bit(authority)));
+        }
+        return Map.copyOf(table);
+    }
+
+    private static void add(Set<GrantedAuthority> authorities, String role) {
+        String trimmed = role.trim();
+        if (!trimmed.isEmpty()) {
+            authorities.add(intern(trimmed));
+        }
+    }
+
+    private static final class Entry {
+        private final GrantedAuthority authority;
+        private final long bit;
+
+        private Entry(String authority, long bit) {
+            this.authority = new SimpleGrantedAuthority(authority);
+            this.bit = bit;
+        }
+    }
+}
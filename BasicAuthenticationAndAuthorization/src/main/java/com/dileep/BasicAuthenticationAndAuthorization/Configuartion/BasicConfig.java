@@ -1,22 +1,34 @@
 package com.dileep.BasicAuthenticationAndAuthorization.Configuartion;
 
+import com.dileep.BasicAuthenticationAndAuthorization.Exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.authorization.AuthorizationDecision;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -24,30 +36,135 @@ import java.util.List;
 @EnableMethodSecurity
 public class BasicConfig {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.user-cache.ttl:5m}")
+    private Duration userCacheTtl;
+
+    @Value("${security.user-cache.maximum-size:10000}")
+    private long userCacheMaximumSize;
+
+    @Value("${security.credential-cache.enabled:false}")
+    private boolean credentialCacheEnabled;
+
+    @Value("${security.credential-cache.ttl:5m}")
+    private Duration credentialCacheTtl;
+
+    @Value("${security.credential-cache.maximum-size:10000}")
+    private long credentialCacheMaximumSize;
+
+    @Value("${security.password.encoding-id:bcrypt}")
+    private String passwordEncodingId;
+
+    @Value("${security.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${security.password.target-hash-time:100ms}")
+    private Duration targetHashTime;
+
+    @Value("${security.password.min-bcrypt-strength:10}")
+    private int minBcryptStrength;
+
+    @Value("${security.password.max-bcrypt-strength:16}")
+    private int maxBcryptStrength;
+
+    @Value("${security.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${security.password-hashing.max-wait:2s}")
+    private Duration passwordHashingMaxWait;
+
+    @Value("${security.password-hashing.retry-after:1s}")
+    private Duration passwordHashingRetryAfter;
+
     /**
      * Fetching UserInfo by UserName from Database and Mapping into UserDetails
      */
     @Bean
-    public UserDetailsService userDetailsService(){
+    public MyUserDetailsService myUserDetailsService(){
         return new MyUserDetailsService();
     }
 
+    /**
+     * MyUserDetailsService behind a cache, so repeated logins don't hit the database every time.
+     * UserInfoService evicts users when they change
+     */
+    @Bean
+    @Primary
+    public CachedUserDetailsService userDetailsService(){
+        return new CachedUserDetailsService(myUserDetailsService(), userCacheTtl, userCacheMaximumSize, meterRegistry);
+    }
+
      /**
      * Authentication by using daoAuthenticationProvider which is default by spring Security
      */
     @Bean
-    public AuthenticationManager authenticationManager() throws AuthenticationException {
+    public AuthenticationManager authenticationManager(CredentialCachingAuthenticationProvider authenticationProvider) throws AuthenticationException {
         System.out.println("Custom AuthenticationManager bean loaded");
-        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        return  new ProviderManager(List.of(authenticationProvider));
+    }
+
+    /**
+     * DaoAuthenticationProvider that can skip BCrypt for credentials it verified a moment ago
+     * (security.credential-cache.enabled)
+     */
+    @Bean
+    public CredentialCachingAuthenticationProvider authenticationProvider(UserInfoPasswordService userInfoPasswordService) {
+        CredentialCachingAuthenticationProvider daoAuthenticationProvider = new CredentialCachingAuthenticationProvider(
+                credentialCacheEnabled, credentialCacheTtl, credentialCacheMaximumSize, meterRegistry);
         daoAuthenticationProvider.setPasswordEncoder(encoder());
         daoAuthenticationProvider.setUserDetailsService(userDetailsService());
         daoAuthenticationProvider.setHideUserNotFoundExceptions(false);
-        return  new ProviderManager(List.of(daoAuthenticationProvider));
+        // hashes with an outdated algorithm or cost are rewritten after a successful login
+        daoAuthenticationProvider.setUserDetailsPasswordService(userInfoPasswordService);
+        return daoAuthenticationProvider;
     }
 
     @Bean
     public PasswordEncoder encoder(){
-        return new BCryptPasswordEncoder();
+        // 0 = benchmark this host and pick the strength that hits the target time
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : PasswordEncoderCalibration.calibrateBCryptStrength(targetHashTime, minBcryptStrength, maxBcryptStrength);
+        // the strength this node hashes with, nodes on different hardware may differ
+        Gauge.builder("security.password.bcrypt-strength", () -> strength).register(meterRegistry);
+        return new BoundedPasswordEncoder(PasswordEncoderCalibration.delegatingEncoder(passwordEncodingId, strength), passwordHashingExecutor());
+    }
+
+    /**
+     * dedicated, bounded pool for BCrypt so login and signup bursts can't take every request thread
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashingExecutor passwordHashingExecutor(){
+        int poolSize = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashingExecutor(poolSize, passwordHashingQueueCapacity, passwordHashingMaxWait, passwordHashingRetryAfter, meterRegistry);
+    }
+
+    /**
+     * compiles every @RequiresAuthority rule once the singletons exist, a broken rule fails the startup
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static MaskMethodAuthorizationManager requiresAuthorityManager(ListableBeanFactory beanFactory) {
+        return new MaskMethodAuthorizationManager(beanFactory);
+    }
+
+    /**
+     * Method-based Authorization for @RequiresAuthority, compiled into mask checks
+     * instead of evaluating a SpEL expression on every call
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresAuthorityAdvisor(MaskMethodAuthorizationManager requiresAuthorityManager) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                new AnnotationMatchingPointcut(null, RequiresAuthority.class, true),
+                requiresAuthorityManager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
     }
 
     /**
@@ -62,21 +179,13 @@ public class BasicConfig {
                 .authorizeHttpRequests(auth ->{
                     auth
                         // recommended format
-                        .requestMatchers(HttpMethod.POST, "/api/products").hasAuthority("PRODUCT_CREATE")
-                        .requestMatchers(HttpMethod.PUT, "/api/products/update/*").hasAuthority("PRODUCT_UPDATE")
-                        .requestMatchers(HttpMethod.DELETE, "/api/products/delete/*").hasAuthority("PRODUCT_DELETE")
+                        .requestMatchers(HttpMethod.POST, "/api/products").access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_CREATE))
+                        .requestMatchers(HttpMethod.PUT, "/api/products/update/*").access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_UPDATE))
+                        .requestMatchers(HttpMethod.DELETE, "/api/products/delete/*").access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_DELETE))
                             // .requestMatchers(HttpMethod.GET,"/api/products").hasAuthority("PRODUCT_VIEW")
 
                         .requestMatchers(HttpMethod.GET, "/api/products/getProduct/*")
-                        .access((authentication, context) -> {
-                            boolean hasView = authentication.get().getAuthorities().stream()
-                                    .anyMatch(a -> a.getAuthority().equals("PRODUCT_VIEW"));
-                            boolean hasUserRole = authentication.get().getAuthorities().stream()
-                                    .anyMatch(a -> a.getAuthority().equals("ROLE_CUSTOMER_SERVICE"));
-                            return hasView || hasUserRole
-                                    ? new AuthorizationDecision(true)
-                                    : new AuthorizationDecision(false);
-                        })
+                        .access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW, Authority.ROLE_CUSTOMER_SERVICE))
 
                             // normal way not recommended
                             // .requestMatchers("/api/products","/api/products/update/*","/api/products/delete/*").hasRole("admin")
@@ -91,11 +200,11 @@ public class BasicConfig {
                 // exception
                 .formLogin(form -> form
                         .failureHandler((request, response, exception) -> {
-                            Throwable cause = exception;
-                            while (cause.getCause() != null && cause != cause.getCause()) {
-                                cause = cause.getCause();
-                            }
-                            if (cause instanceof UsernameNotFoundException) {
+                            Throwable cause = rootCause(exception);
+                            if (cause instanceof PasswordHashingRejectedException rejected) {
+                                response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+                                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()));
+                            } else if (cause instanceof UsernameNotFoundException) {
                                 System.out.println("Custom message: " + cause.getMessage());
                             } else {
                                 System.out.println("Login failed: " + exception.getMessage());
@@ -104,4 +213,12 @@ public class BasicConfig {
                 );
         return http.build();
     }
+
+    private static Throwable rootCause(Throwable exception) {
+        Throwable cause = exception;
+        while (cause.getCause() != null && cause != cause.getCause()) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
 }
@@ -0,0 +1,105 @@
+package com.dileep.BasicAuthenticationAndAuthorization.Configuartion;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+/**
+ * DaoAuthenticationProvider that remembers successful password checks for a short time.
+ *
+ * Off by default (security.credential-cache.enabled). It only pays off for clients that log in again and again
+ * with the same password, each of those logins would otherwise cost a full BCrypt match.
+ * After one successful BCrypt check we keep (username -> HMAC of the presented password, stored hash).
+ * The HMAC key is random per process and never leaves memory, so the cache holds nothing that could be
+ * brute-forced offline. A repeat request with the same password only costs one HMAC until the entry expires,
+ * the stored hash changes, or UserInfoService evicts the user.
+ */
+public class CredentialCachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final SecretKey fingerprintKey;
+    private final Cache<String, VerifiedCredential> verifiedCredentials;
+
+    public CredentialCachingAuthenticationProvider(boolean enabled, Duration ttl, long maximumSize, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        try {
+            this.fingerprintKey = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedCredentials, "credentials.verified");
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        if (!enabled || authentication.getCredentials() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        byte[] fingerprint = fingerprint(userDetails.getUsername(), authentication.getCredentials().toString());
+        VerifiedCredential verified = verifiedCredentials.getIfPresent(userDetails.getUsername());
+        if (verified != null && verified.matches(userDetails.getPassword(), fingerprint)) {
+            // same password already checked against the same stored hash, skip BCrypt
+            return;
+        }
+
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verifiedCredentials.put(userDetails.getUsername(), new VerifiedCredential(userDetails.getPassword(), fingerprint));
+    }
+
+    /**
+     * forgets the verified password of the user, called when the user changes
+     */
+    public void evict(String username) {
+        if (username != null) {
+            verifiedCredentials.invalidate(username);
+        }
+    }
+
+    private byte[] fingerprint(String username, String presentedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(fingerprintKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(presentedPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class VerifiedCredential {
+        private final String passwordHash;
+        private final byte[] fingerprint;
+
+        private VerifiedCredential(String passwordHash, byte[] fingerprint) {
+            this.passwordHash = passwordHash;
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean matches(String currentPasswordHash, byte[] presentedFingerprint) {
+            return passwordHash.equals(currentPasswordHash) && MessageDigest.isEqual(fingerprint, presentedFingerprint);
+        }
+    }
+}
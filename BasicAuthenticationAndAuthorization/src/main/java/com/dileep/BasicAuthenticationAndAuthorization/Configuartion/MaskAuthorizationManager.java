@@ -0,0 +1,50 @@
+package com.dileep.BasicAuthenticationAndAuthorization.Configuartion;
+
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * Authorization rule compiled into a bitmask at startup.
+ * Deciding is a single AND on the principal's precomputed mask and returns
+ * shared decision instances, so nothing is allocated per request.
+ */
+public final class MaskAuthorizationManager<T> implements AuthorizationManager<T> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final long requiredMask;
+
+    private MaskAuthorizationManager(Authority... authorities) {
+        if (authorities.length == 0) {
+            // an empty mask would deny everyone without a word
+            throw new IllegalArgumentException("A rule must name at least one authority");
+        }
+        long mask = 0L;
+        for (Authority authority : authorities) {
+            mask |= AuthorityRegistry.bit(authority);
+        }
+        this.requiredMask = mask;
+    }
+
+    /**
+     * granted when the principal has at least one of the given authorities
+     */
+    public static <T> MaskAuthorizationManager<T> anyOf(Authority... authorities) {
+        return new MaskAuthorizationManager<>(authorities);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        return isGranted(authentication.get()) ? GRANTED : DENIED;
+    }
+
+    boolean isGranted(Authentication authentication) {
+        return authentication != null
+                && authentication.isAuthenticated()
+                && (AuthorityRegistry.mask(authentication) & requiredMask) != 0L;
+    }
+}
@@ -1,12 +1,16 @@
 package com.dileep.BasicAuthenticationAndAuthorization.Controller;
 
+import com.dileep.BasicAuthenticationAndAuthorization.Configuartion.Authority;
+import com.dileep.BasicAuthenticationAndAuthorization.Configuartion.RequiresAuthority;
+import com.dileep.BasicAuthenticationAndAuthorization.DTO.ProductView;
 import com.dileep.BasicAuthenticationAndAuthorization.Entity.Product;
 import com.dileep.BasicAuthenticationAndAuthorization.Service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,15 +31,29 @@ public class ProductController {
 
     // Get all products
     @GetMapping
-    @PreAuthorize("hasAuthority('PRODUCT_VIEW') and isAuthenticated()")
-    public ResponseEntity<List<Product>> getAllProducts() {
+    @RequiresAuthority(Authority.PRODUCT_VIEW)
+    public ResponseEntity<List<ProductView>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    // Export all products, streamed as NDJSON (default) or as a JSON array
+    @GetMapping("/export")
+    @RequiresAuthority(Authority.PRODUCT_VIEW)
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean jsonArray = format.equalsIgnoreCase("json");
+        if (!jsonArray && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> productService.exportProducts(out, jsonArray);
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     // Get product by ID
     @GetMapping("/getProduct/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id) {
+        Optional<ProductView> product = productService.getProductById(id);
          return  product.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -54,7 +72,9 @@ public class ProductController {
     // Delete product
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        productService.deleteProduct(id);
+        if (!productService.deleteProduct(id)) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,15 @@
+package com.dileep.BasicAuthenticationAndAuthorization.DTO;
+
+import com.dileep.BasicAuthenticationAndAuthorization.Entity.Product;
+
+/**
+ * Read-only view of a product, selected straight into this record by ProductRepository.
+ * Never managed by Hibernate, so reads skip entity hydration, snapshots and dirty checking.
+ * Serialises to the same JSON as Product.
+ */
+public record ProductView(Long id, String productName, Double price, Integer quantity, Long version) {
+
+    public static ProductView from(Product product) {
+        return new ProductView(product.getId(), product.getProductName(), product.getPrice(), product.getQuantity(), product.getVersion());
+    }
+}
@@ -25,6 +25,11 @@ public class Product {
 
     private Integer quantity;
 
+    // optimistic lock: bumped by every update, an update carrying a stale version is rejected with 409
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // toString()
     @Override
     public String toString() {
@@ -33,6 +38,7 @@ public class Product {
                 ", productName='" + productName + '\'' +
                 ", price=" + price +
                 ", quantity=" + quantity +
+                ", version=" + version +
                 '}';
     }
 }
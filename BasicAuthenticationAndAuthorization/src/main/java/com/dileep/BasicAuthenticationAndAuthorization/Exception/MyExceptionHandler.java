@@ -1,5 +1,8 @@
 package com.dileep.BasicAuthenticationAndAuthorization.Exception;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,4 +14,16 @@ public class MyExceptionHandler {
     public void handlingUserNotFoundException(UsernameNotFoundException ex){
         System.out.println(ex.getMessage());
     }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<String> handlingPasswordHashingRejectedException(PasswordHashingRejectedException ex){
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(ProductVersionConflictException.class)
+    public ResponseEntity<String> handlingProductVersionConflictException(ProductVersionConflictException ex){
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
 }
@@ -1,7 +1,65 @@
 package com.dileep.BasicAuthenticationAndAuthorization.Repository;
 
+import com.dileep.BasicAuthenticationAndAuthorization.DTO.ProductView;
 import com.dileep.BasicAuthenticationAndAuthorization.Entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product,Long> {
+
+    // read path: rows go straight into ProductView records, no managed entities and no flush
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.dileep.BasicAuthenticationAndAuthorization.DTO.ProductView(p.id, p.productName, p.price, p.quantity, p.version) from Product p")
+    List<ProductView> findAllViews();
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.dileep.BasicAuthenticationAndAuthorization.DTO.ProductView(p.id, p.productName, p.price, p.quantity, p.version) from Product p where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    // forward-only cursor for the export, PostgreSQL only honours the fetch size inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllOrderById();
+
+    // single round-trip writes: no load before the statement, the affected rows decide not-found / conflict
+
+    @Transactional
+    @Query(value = "update products set product_name = :productName, price = :price, quantity = :quantity, version = version + 1"
+            + " where id = :id returning *", nativeQuery = true)
+    Optional<Product> updateAndReturn(@Param("id") Long id, @Param("productName") String productName,
+                                      @Param("price") Double price, @Param("quantity") Integer quantity);
+
+    @Transactional
+    @Query(value = "update products set product_name = :productName, price = :price, quantity = :quantity, version = version + 1"
+            + " where id = :id and version = :version returning *", nativeQuery = true)
+    Optional<Product> updateAndReturnIfVersion(@Param("id") Long id, @Param("version") Long version, @Param("productName") String productName,
+                                               @Param("price") Double price, @Param("quantity") Integer quantity);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") Long id);
 }
@@ -1,47 +1,113 @@
 package com.dileep.BasicAuthenticationAndAuthorization.Service;
 
+import com.dileep.BasicAuthenticationAndAuthorization.Cache.ProductCache;
+import com.dileep.BasicAuthenticationAndAuthorization.DTO.ProductView;
 import com.dileep.BasicAuthenticationAndAuthorization.Entity.Product;
+import com.dileep.BasicAuthenticationAndAuthorization.Exception.ProductVersionConflictException;
 import com.dileep.BasicAuthenticationAndAuthorization.Repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    // rows written between two flushes of the response
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     // Save product
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productCache.put(savedProduct);
+        return savedProduct;
     }
 
     // Get all products
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public List<ProductView> getAllProducts() {
+        return productRepository.findAllViews();
+    }
+
+    // Export every product straight to the output stream, as NDJSON (one product per line) or as one JSON array
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out, boolean jsonArray) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Product.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllOrderById();
+             SequenceWriter sequence = jsonArray
+                     ? writer.writeValuesAsArray(out)
+                     : writer.withRootValueSeparator("\n").writeValues(out)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                Product product = iterator.next();
+                sequence.write(product);
+                // written, so drop it from the persistence context to keep the heap flat
+                entityManager.detach(product);
+                if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                    sequence.flush();
+                }
+            }
+        }
+        if (!jsonArray && count > 0) {
+            // every NDJSON line ends with a newline, including the last one
+            out.write('\n');
+        }
+        out.flush();
+        return count;
     }
 
     // Get product by ID
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    public Optional<ProductView> getProductById(Long id) {
+        return productCache.getById(id, () -> productRepository.findViewById(id));
     }
 
-    // Update product
+    // Update product in one statement, guarded by the version when the caller sends one
     public Product updateProduct(Long id, Product updatedProduct) {
-        return productRepository.findById(id).map(product -> {
-            product.setProductName(updatedProduct.getProductName());
-            product.setPrice(updatedProduct.getPrice());
-            product.setQuantity(updatedProduct.getQuantity());
-            return productRepository.save(product);
-        }).orElse(null);
+        Long expectedVersion = updatedProduct.getVersion();
+        Optional<Product> saved = expectedVersion == null
+                ? productRepository.updateAndReturn(id, updatedProduct.getProductName(), updatedProduct.getPrice(), updatedProduct.getQuantity())
+                : productRepository.updateAndReturnIfVersion(id, expectedVersion, updatedProduct.getProductName(), updatedProduct.getPrice(), updatedProduct.getQuantity());
+        if (saved.isPresent()) {
+            productCache.put(saved.get());
+            return saved.get();
+        }
+        // nothing updated: only a versioned update needs the extra lookup to tell a conflict from a missing product
+        if (expectedVersion != null && productRepository.existsById(id)) {
+            throw new ProductVersionConflictException("Product " + id + " was changed by someone else, reload it and retry");
+        }
+        return null;
     }
 
     // Delete product
-    public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+    public boolean deleteProduct(Long id) {
+        int deleted = productRepository.deleteProductById(id);
+        productCache.evict(id);
+        return deleted > 0;
     }
 }
 
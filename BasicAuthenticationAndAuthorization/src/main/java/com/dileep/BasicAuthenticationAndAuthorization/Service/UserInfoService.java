@@ -1,5 +1,7 @@
 package com.dileep.BasicAuthenticationAndAuthorization.Service;
 
+import com.dileep.BasicAuthenticationAndAuthorization.Configuartion.CachedUserDetailsService;
+import com.dileep.BasicAuthenticationAndAuthorization.Configuartion.CredentialCachingAuthenticationProvider;
 import com.dileep.BasicAuthenticationAndAuthorization.DTO.SignupRequest;
 import com.dileep.BasicAuthenticationAndAuthorization.Entity.UserInfo;
 import com.dileep.BasicAuthenticationAndAuthorization.Repository.UserInfoRepository;
@@ -18,6 +20,12 @@ public class UserInfoService {
     @Autowired
     private PasswordEncoder encoder;
 
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+
+    @Autowired
+    private CredentialCachingAuthenticationProvider authenticationProvider;
+
     // Save user
     public String saveUser(SignupRequest request) {
         if (userInfoRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -32,6 +40,7 @@ public class UserInfoService {
                             .build();
 
             userInfoRepository.save(userInfo);
+            evict(userInfo.getUsername());
         }
         return request.getUsername()+ " successfully register";
     }
@@ -60,13 +69,25 @@ public class UserInfoService {
                     .email(updatedUser.getEmail())
                     .roles(updatedUser.getRoles())
                             .build();
-            return userInfoRepository.save(updatedUserInfo);
+            UserInfo saved = userInfoRepository.save(updatedUserInfo);
+            // roles or password may have changed, drop the cached copies right away
+            evict(user.getUsername());
+            evict(saved.getUsername());
+            return saved;
         }).orElse(null);
     }
 
     // Delete user
     public void deleteUser(Long id) {
-        userInfoRepository.deleteById(id);
+        userInfoRepository.findById(id).ifPresent(user -> {
+            userInfoRepository.delete(user);
+            evict(user.getUsername());
+        });
     }
-}
 
+    // drop cached user details and verified credentials of the user
+    private void evict(String username) {
+        userDetailsService.evict(username);
+        authenticationProvider.evict(username);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dileep.BasicAuthenticationAndAuthorization.Configuartion;
+
+import com.dileep.BasicAuthenticationAndAuthorization.Entity.UserInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MaskAuthorizationManagerTest {
+
+    @Test
+    void grantsWhenThePrincipalHasOneOfTheAuthorities() {
+        Authentication viewer = authenticated("PRODUCT_VIEW, ROLE_CUSTOMER_SERVICE");
+
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW), viewer)).isTrue();
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_DELETE, Authority.ROLE_CUSTOMER_SERVICE), viewer)).isTrue();
+    }
+
+    @Test
+    void deniesWhenThePrincipalHasNoneOfTheAuthorities() {
+        Authentication viewer = authenticated("PRODUCT_VIEW");
+
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_DELETE), viewer)).isFalse();
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW), null)).isFalse();
+    }
+
+    @Test
+    void unknownAuthoritiesHaveNoBitButAreStillHeld() {
+        MyUserDetails user = (MyUserDetails) authenticated("SOMETHING_MADE_UP").getPrincipal();
+
+        assertThat(AuthorityRegistry.bit("SOMETHING_MADE_UP")).isZero();
+        assertThat(user.hasAuthority("SOMETHING_MADE_UP")).isTrue();
+        assertThat(user.hasAuthority("PRODUCT_VIEW")).isFalse();
+    }
+
+    @Test
+    void aRuleMustNameAnAuthority() {
+        assertThatThrownBy(() -> MaskAuthorizationManager.anyOf()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Authentication authenticated(String roles) {
+        MyUserDetails user = new MyUserDetails(UserInfo.builder().username("alice").password("").roles(roles).build());
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+
+    private static boolean isGranted(MaskAuthorizationManager<Object> manager, Authentication authentication) {
+        return manager.check(() -> authentication, null).isGranted();
+    }
+}
@@ -0,0 +1,125 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Cache;
+
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of ProductRepository, holding ProductView records (immutable, safe to share).
+ * Products are cached by id (a missing id is cached as empty), result pages by the requested Pageable
+ * (page, size, sort property and direction), bounded by the total number of rows they hold. ProductService keeps it in step with its own writes:
+ * the id entry is replaced or dropped and every cached page is dropped, since any write can move rows between pages.
+ * The ttl only bounds staleness for changes made outside this instance.
+ *
+ * Concurrent misses for the same key share one query: the first caller puts an incomplete future into the cache
+ * and runs the query on its own thread, everyone else waits on that future.
+ */
+@Component
+public class ProductCache {
+
+    private final AsyncCache<Long, Optional<ProductView>> products;
+    private final AsyncCache<Pageable, Page<ProductView>> pages;
+
+    public ProductCache(@Value("${product-cache.ttl:10m}") Duration ttl,
+                        @Value("${product-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product-cache.page-maximum-rows:20000}") long pageMaximumRows,
+                        MeterRegistry meterRegistry) {
+        this.products = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        // weighed by rows, so a few large pages can't take more memory than many small ones
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(pageMaximumRows)
+                .<Pageable, Page<ProductView>>weigher((pageable, page) -> page.getNumberOfElements() + 1)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "products.pages");
+    }
+
+    public Optional<ProductView> getById(Long id, Supplier<Optional<ProductView>> loader) {
+        return getOrLoad(products, id, loader);
+    }
+
+    public Page<ProductView> getPage(Pageable pageable, Supplier<Page<ProductView>> loader) {
+        return getOrLoad(pages, pageable, loader);
+    }
+
+    /**
+     * caches the saved state of a product and drops the pages it may appear on
+     */
+    public void put(Product product) {
+        products.put(product.getId(), CompletableFuture.completedFuture(Optional.of(ProductView.from(product))));
+        pages.synchronous().invalidateAll();
+    }
+
+    /**
+     * drops a deleted product and the pages it may appear on
+     */
+    public void evict(Long id) {
+        products.synchronous().invalidate(id);
+        pages.synchronous().invalidateAll();
+    }
+
+    /**
+     * bulk version of put and evict, the pages are dropped once
+     */
+    public void update(Collection<Product> saved, Collection<Long> deletedIds) {
+        for (Product product : saved) {
+            products.put(product.getId(), CompletableFuture.completedFuture(Optional.of(ProductView.from(product))));
+        }
+        products.synchronous().invalidateAll(deletedIds);
+        pages.synchronous().invalidateAll();
+    }
+
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future != loading) {
+            return join(future);
+        }
+
+        // the query runs on the caller's thread outside any cache lock,
+        // a failed future is dropped by the cache and a write evicting the key meanwhile just discards this one.
+        // Errors complete it too, otherwise every caller waiting on the key would block forever
+        try {
+            V value = loader.get();
+            loading.complete(value);
+            return value;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
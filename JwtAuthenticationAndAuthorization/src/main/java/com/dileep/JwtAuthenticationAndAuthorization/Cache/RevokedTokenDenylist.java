@@ -0,0 +1,148 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory copy of the revoked token ids (jti) that have not expired yet, checked by JwtFilter on every request.
+ *
+ * A Bloom filter answers "never revoked" for almost every token with k bit probes and no allocation.
+ * Only the few tokens it flags go on to the exact set (jti -> token expiry), which also holds the truth
+ * for the rare false positives. Bloom filters can't remove entries, so prune drops the expired ids from the
+ * exact set and rebuilds the filter from what is left; memory stays bounded by the tokens revoked within one
+ * access token lifetime. The filter is also rebuilt twice as large once it holds more ids than it was sized for.
+ *
+ * Reads are lock-free, add / prune are rare and serialized.
+ */
+@Component
+public class RevokedTokenDenylist {
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private final double falsePositiveRate;
+    private volatile BloomFilter filter;
+
+    public RevokedTokenDenylist(@Value("${jwt.revocation.expected-revocations:100000}") int expectedRevocations,
+                                @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                MeterRegistry meterRegistry) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        Gauge.builder("jwt.revoked-tokens", revoked, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        long hash = hash(tokenId);
+        return filter.mightContain(hash) && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * idempotent, the same id may come from a local revoke and from the next poll
+     */
+    public synchronized void add(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(Instant.now()) || revoked.putIfAbsent(tokenId, expiresAt) != null) {
+            return;
+        }
+        if (revoked.size() > filter.capacity) {
+            rebuild(filter.capacity * 2);
+        } else {
+            filter.put(hash(tokenId));
+        }
+    }
+
+    /**
+     * forgets the ids of tokens that have expired anyway, returns how many were dropped
+     */
+    public synchronized int prune(Instant now) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        int dropped = before - revoked.size();
+        if (dropped > 0) {
+            rebuild(filter.capacity);
+        }
+        return dropped;
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // the new filter is filled before it is published, readers see either the old one or the complete new one
+    private void rebuild(int capacity) {
+        BloomFilter rebuilt = new BloomFilter(Math.max(capacity, revoked.size()), falsePositiveRate);
+        for (String tokenId : revoked.keySet()) {
+            rebuilt.put(hash(tokenId));
+        }
+        filter = rebuilt;
+    }
+
+    // 64-bit FNV-1a, jti values are random UUIDs so a simple hash spreads well
+    private static long hash(String tokenId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < tokenId.length(); i++) {
+            hash ^= tokenId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class BloomFilter {
+        private final int capacity;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray bits;
+
+        private BloomFilter(int capacity, double falsePositiveRate) {
+            this.capacity = Math.max(capacity, 1024);
+            // m = -n ln p / (ln 2)^2, k = m / n ln 2
+            long m = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+            this.bitCount = bits.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) m / this.capacity * Math.log(2)));
+        }
+
+        private void put(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(long hash) {
+            long h1 = hash;
+            long h2 = mix(hash);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // second, independent-enough hash for double hashing (murmur3 finalizer), forced odd
+        private static long mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash | 1;
+        }
+    }
+}
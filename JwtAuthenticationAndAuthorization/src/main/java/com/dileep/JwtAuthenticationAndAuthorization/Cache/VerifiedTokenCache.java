@@ -0,0 +1,107 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * Bounded cache of tokens that already passed signature verification.
+ * Keyed by a SHA-256 of the raw token so the token itself is never kept in memory,
+ * entries are evicted when the token expires or when the size limit is hit (LRU-like).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.token-cache.maximum-size:10000}") long maximumSize,
+                              MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, CachedAuthentication>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    /**
+     * returns the cached authentication for the token, or null on a miss
+     */
+    public CachedAuthentication get(String token) {
+        CachedAuthentication cached = cache.getIfPresent(hash(token));
+        if (cached != null && cached.getExpiresAt().isBefore(Instant.now())) {
+            // expiry eviction is asynchronous, never hand out an expired entry
+            return null;
+        }
+        return cached;
+    }
+
+    public CachedAuthentication put(String token, String tokenId, UserDetails userDetails, Instant expiresAt) {
+        CachedAuthentication cached = new CachedAuthentication(tokenId, userDetails, userDetails.getAuthorities(), expiresAt);
+        cache.put(hash(token), cached);
+        return cached;
+    }
+
+    /**
+     * hit / miss / eviction counters
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Getter
+    public static class CachedAuthentication {
+        // jti, a cached token is still checked against the revocation denylist on every request
+        private final String tokenId;
+        private final UserDetails principal;
+        private final Collection<? extends GrantedAuthority> authorities;
+        private final Instant expiresAt;
+
+        CachedAuthentication(String tokenId, UserDetails principal, Collection<? extends GrantedAuthority> authorities, Instant expiresAt) {
+            this.tokenId = tokenId;
+            this.principal = principal;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * UserDetailsService decorator that keeps loaded users in a bounded, expiring cache,
+ * so repeated authentications of the same user don't hit the database.
+ * UserInfoService evicts a user whenever it is saved, updated or deleted.
+ *
+ * Concurrent misses for the same user share one load: the first caller puts an incomplete future into the cache
+ * and runs the query on its own thread, outside any cache lock, so a virtual thread waiting on JDBC never pins
+ * its carrier. evict drops an in-flight future too, a load racing with an update can't put the old user back.
+ */
+public class CachedUserDetailsService implements UserDetailsService {
+
+    private final UserDetailsService delegate;
+    private final AsyncCache<String, UserDetails> cache;
+    private final Timer loadTimer;
+
+    public CachedUserDetailsService(UserDetailsService delegate, Duration ttl, long maximumSize, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .buildAsync();
+        this.loadTimer = Timer.builder("users.details.load")
+                .description("Time spent loading a user from the database on a cache miss")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users.details");
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CompletableFuture<UserDetails> loading = new CompletableFuture<>();
+        CompletableFuture<UserDetails> future = cache.get(username, (key, executor) -> loading);
+        if (future != loading) {
+            return join(future);
+        }
+
+        // unknown users are not cached: the failed future is dropped and the exception rethrown as is
+        try {
+            UserDetails user = loadTimer.record(() -> delegate.loadUserByUsername(username));
+            loading.complete(user);
+            return user;
+        } catch (Throwable e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.synchronous().invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private static UserDetails join(CompletableFuture<UserDetails> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
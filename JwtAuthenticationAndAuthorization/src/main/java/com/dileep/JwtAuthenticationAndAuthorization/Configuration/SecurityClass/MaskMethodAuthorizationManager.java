@@ -0,0 +1,82 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates @RequiresAuthority methods with a MaskAuthorizationManager.
+ * The rules of every bean are compiled into masks once the singletons are created, so a broken rule fails the startup
+ * instead of the first call; later calls are a map lookup and a mask test.
+ * Methods the scan can't see (beans created later, interface proxies) are compiled on their first call.
+ */
+public final class MaskMethodAuthorizationManager implements AuthorizationManager<MethodInvocation>, SmartInitializingSingleton {
+
+    private final Map<Method, MaskAuthorizationManager<MethodInvocation>> rules = new ConcurrentHashMap<>();
+    private final ListableBeanFactory beanFactory;
+
+    public MaskMethodAuthorizationManager(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type = beanFactory.getType(name, false);
+            if (type != null && AnnotationUtils.isCandidateClass(type, RequiresAuthority.class)) {
+                compileAll(ClassUtils.getUserClass(type));
+            }
+        }
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        MaskAuthorizationManager<MethodInvocation> rule = rules.get(invocation.getMethod());
+        if (rule == null) {
+            rule = rules.computeIfAbsent(invocation.getMethod(), method -> compile(method, invocation.getThis()));
+        }
+        return rule.check(authentication, invocation);
+    }
+
+    /**
+     * number of compiled rules
+     */
+    int size() {
+        return rules.size();
+    }
+
+    private void compileAll(Class<?> type) {
+        Map<Method, RequiresAuthority> annotated = MethodIntrospector.selectMethods(type,
+                (MethodIntrospector.MetadataLookup<RequiresAuthority>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, RequiresAuthority.class));
+        annotated.forEach((method, requiresAuthority) -> {
+            try {
+                rules.putIfAbsent(method, MaskAuthorizationManager.anyOf(requiresAuthority.value()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Invalid @RequiresAuthority on " + method, e);
+            }
+        });
+    }
+
+    private static MaskAuthorizationManager<MethodInvocation> compile(Method method, Object target) {
+        Method specificMethod = target == null ? method : AopUtils.getMostSpecificMethod(method, target.getClass());
+        RequiresAuthority requiresAuthority = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresAuthority.class);
+        if (requiresAuthority == null) {
+            requiresAuthority = AnnotatedElementUtils.findMergedAnnotation(method, RequiresAuthority.class);
+        }
+        return MaskAuthorizationManager.anyOf(requiresAuthority.value());
+    }
+}
@@ -2,40 +2,75 @@ package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass
 
 import com.dileep.JwtAuthenticationAndAuthorization.Entity.UserInfo;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 public class MyUserDetails implements UserDetails {
     private final String userName;
     private final String password;
-    private final String roles;
+    // parsed once per user / token, shared authority instances from AuthorityRegistry
+    private final Set<GrantedAuthority> authorities;
+    // one bit per authority, used by MaskAuthorizationManager
+    private final long authorityMask;
+
     public MyUserDetails(UserInfo userInfo) {
         userName=userInfo.getUsername();
         password= userInfo.getPassword();
-        roles= userInfo.getRoles();
+        authorities= AuthorityRegistry.parse(userInfo.getRoles());
+        authorityMask= AuthorityRegistry.mask(authorities);
     }
 
     public MyUserDetails(String username, String s, List<String> roles) {
         this.userName=username;
         this.password=s;
-        this.roles=roles.stream()
-                .map((role)-> role.trim())
-                .collect(Collectors.joining(","));
+        this.authorities=AuthorityRegistry.of(roles);
+        this.authorityMask=AuthorityRegistry.mask(authorities);
+    }
+
+    // token principals: authorities and mask come ready-made from the verified claims
+    public MyUserDetails(String username, String s, PermissionDictionary.Permissions permissions) {
+        this.userName=username;
+        this.password=s;
+        this.authorities=permissions.authorities();
+        this.authorityMask=permissions.authorityMask();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Arrays.stream(roles.split(","))
-                .map((role)->{
-                    role=role.trim();
-                    return new SimpleGrantedAuthority(role);
-                })
-                .collect(Collectors.toList());
+        return authorities;
+    }
+
+    public long getAuthorityMask() {
+        return authorityMask;
+    }
+
+    /**
+     * O(1) mask test instead of scanning getAuthorities(); names outside AuthorityRegistry's table have no bit
+     * and are looked up in the authority set
+     */
+    public boolean hasAuthority(String authority) {
+        long bit = AuthorityRegistry.bit(authority);
+        if (bit != 0L) {
+            return (authorityMask & bit) != 0L;
+        }
+        for (GrantedAuthority granted : authorities) {
+            if (granted.getAuthority().equals(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAnyAuthority(String... authorities) {
+        for (String authority : authorities) {
+            if (hasAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
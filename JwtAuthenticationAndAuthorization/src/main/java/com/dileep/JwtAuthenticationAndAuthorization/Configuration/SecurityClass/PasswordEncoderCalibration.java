@@ -0,0 +1,72 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the password encoder for this host.
+ *
+ * The BCrypt work factor is picked at startup by timing real hashes: the smallest strength
+ * whose hash takes at least the target time (never below minStrength). New hashes are written
+ * as {bcrypt}..., {argon2}... or {pbkdf2}... so existing hashes of any of these keep working,
+ * and hashes with another algorithm or a lower cost report upgradeEncoding() = true, which lets
+ * DaoAuthenticationProvider rehash them on the next successful login.
+ *
+ * Hashes with a higher cost are left alone: calibration runs per node, so nodes on different
+ * hardware pick different strengths and would otherwise rewrite each other's hashes on every login.
+ * Pin security.password.bcrypt-strength to use one cost across all instances.
+ */
+public final class PasswordEncoderCalibration {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private PasswordEncoderCalibration() {
+    }
+
+    public static PasswordEncoder delegatingEncoder(String encodingId, int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        // hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegatingEncoder;
+    }
+
+    /**
+     * smallest BCrypt strength in [minStrength, maxStrength] whose hash takes at least targetTime on this host
+     */
+    public static int calibrateBCryptStrength(Duration targetTime, int minStrength, int maxStrength) {
+        // warm up the JIT so the first measurement isn't inflated
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+        long targetNanos = targetTime.toNanos();
+        int strength = minStrength;
+        while (strength < maxStrength && measure(strength) < targetNanos) {
+            strength++;
+        }
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
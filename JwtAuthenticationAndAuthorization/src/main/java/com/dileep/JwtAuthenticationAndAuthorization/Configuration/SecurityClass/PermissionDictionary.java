@@ -0,0 +1,136 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versioned list of permission names shared by every node, permission i is bit i of the compact "perms" claim.
+ *
+ * With jwt.permissions.compact-claim on, tokens carry {"perms":"<base64url bitmask>","pv":<version>} instead of the
+ * "roles" string list: PRODUCT_VIEW, PRODUCT_CREATE, PRODUCT_UPDATE, PRODUCT_DELETE is "Dw" instead of 68 bytes of JSON.
+ * A user holding a permission that is not in the dictionary still gets the plain list, and tokens with either claim
+ * are accepted, so the switch can be rolled out (and back) node by node.
+ *
+ * The list is append-only: a name never moves and is never reused, retired names stay in place. Bump the version
+ * with every change. A "perms" token whose "pv" is not this node's version is rejected instead of being decoded
+ * against a different bit order, so change the dictionary on every node before tokens with the new version reach them.
+ *
+ * Decoding goes straight to a ready-made Permissions (names, shared authority set, AuthorityRegistry mask) cached per
+ * bitmask, users share a handful of role combinations so the cache stays tiny.
+ */
+@Component
+public class PermissionDictionary {
+
+    // distinct bitmasks kept, far more than role combinations exist in practice
+    private static final int MAX_CACHED_MASKS = 1024;
+
+    private final int version;
+    private final List<String> names;
+    private final Map<String, Integer> bitByName = new HashMap<>();
+    private final boolean compactClaim;
+    private final Map<String, Permissions> decoded = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PermissionDictionary(@Value("${jwt.permissions.version:1}") int version,
+                                @Value("${jwt.permissions.dictionary:}") List<String> names,
+                                @Value("${jwt.permissions.compact-claim:false}") boolean compactClaim) {
+        this.version = version;
+        this.names = names.stream().map(String::trim).toList();
+        for (int i = 0; i < this.names.size(); i++) {
+            if (bitByName.putIfAbsent(this.names.get(i), i) != null) {
+                throw new IllegalStateException("Permission " + this.names.get(i) + " appears twice in jwt.permissions.dictionary");
+            }
+            // no AuthorityRegistry bit: a decoded token would carry a permission no rule can check
+            if (AuthorityRegistry.bit(this.names.get(i)) == 0L) {
+                throw new IllegalStateException("Permission " + this.names.get(i) + " in jwt.permissions.dictionary is not an Authority");
+            }
+        }
+        // an empty dictionary can't encode anything, tokens keep the roles list
+        this.compactClaim = compactClaim && !this.names.isEmpty();
+    }
+
+    /**
+     * no dictionary, tokens carry the plain roles list; for benchmarks and tests
+     */
+    public static PermissionDictionary plain() {
+        return new PermissionDictionary(1, List.of(), false);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * whether a "pv" claim names this dictionary's version
+     */
+    public boolean isCurrentVersion(Object pv) {
+        return pv instanceof Number number && number.longValue() == version;
+    }
+
+    public boolean isCompactClaim() {
+        return compactClaim;
+    }
+
+    /**
+     * the "perms" value for the authorities, null when one of them is not in the dictionary
+     */
+    public String encode(Collection<? extends GrantedAuthority> authorities) {
+        byte[] mask = new byte[(names.size() + 7) / 8];
+        int length = 0;
+        for (GrantedAuthority authority : authorities) {
+            Integer bit = bitByName.get(authority.getAuthority());
+            if (bit == null) {
+                return null;
+            }
+            mask[bit >>> 3] |= (byte) (1 << (bit & 7));
+            length = Math.max(length, (bit >>> 3) + 1);
+        }
+        // trailing zero bytes are left out, PRODUCT_VIEW alone is one byte whatever the dictionary size
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(mask, length));
+    }
+
+    /**
+     * the permissions of a "perms" claim; IllegalArgumentException when it is not base64url
+     */
+    public Permissions decode(String perms) {
+        Permissions permissions = decoded.get(perms);
+        if (permissions == null) {
+            permissions = decodeMask(perms);
+            if (decoded.size() < MAX_CACHED_MASKS) {
+                decoded.putIfAbsent(perms, permissions);
+            }
+        }
+        return permissions;
+    }
+
+    /**
+     * the permissions of a plain "roles" claim
+     */
+    public static Permissions fromRoles(List<String> roles) {
+        Set<GrantedAuthority> authorities = AuthorityRegistry.of(roles);
+        return new Permissions(roles, authorities, AuthorityRegistry.mask(authorities));
+    }
+
+    private Permissions decodeMask(String perms) {
+        byte[] mask = Base64.getUrlDecoder().decode(perms);
+        List<String> granted = new ArrayList<>();
+        for (int bit = 0; bit < mask.length * 8; bit++) {
+            // bits past the end of the dictionary come from a newer one, nothing here can check them
+            if ((mask[bit >>> 3] & (1 << (bit & 7))) != 0 && bit < names.size()) {
+                granted.add(names.get(bit));
+            }
+        }
+        return fromRoles(List.copyOf(granted));
+    }
+
+    /**
+     * decoded claim: permission names, the shared authority instances and their AuthorityRegistry mask
+     */
+    public record Permissions(List<String> names, Set<GrantedAuthority> authorities, long authorityMask) {
+    }
+}
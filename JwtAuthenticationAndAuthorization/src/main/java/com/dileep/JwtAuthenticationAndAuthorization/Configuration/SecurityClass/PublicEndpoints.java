@@ -0,0 +1,25 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import lombok.Getter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoints that never need a token. SecurityConfig permits them and JwtFilter skips them,
+ * both from this one matcher, built once at startup.
+ */
+@Component
+@Getter
+public class PublicEndpoints {
+
+    // signup, login, token, refresh, logout (logout reads its token itself), and the public signing keys
+    private static final List<String> PATTERNS = List.of("/api/User/**", "/.well-known/jwks.json");
+
+    private final RequestMatcher matcher = new OrRequestMatcher(PATTERNS.stream()
+            .map(pattern -> (RequestMatcher) PathPatternRequestMatcher.withDefaults().matcher(pattern))
+            .toList());
+}
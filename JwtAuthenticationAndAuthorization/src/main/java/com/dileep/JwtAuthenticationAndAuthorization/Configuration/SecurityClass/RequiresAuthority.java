@@ -0,0 +1,22 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Method rule evaluated by MaskMethodAuthorizationManager, compiled when the application starts.
+ * Same meaning as @PreAuthorize("hasAnyAuthority(...) and isAuthenticated()") without the SpEL evaluation.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresAuthority {
+
+    /**
+     * access is granted when the principal has any of these authorities
+     */
+    Authority[] value();
+}
@@ -0,0 +1,33 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.UserInfo;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.UserInfoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stores the rehashed password DaoAuthenticationProvider produces after a successful login
+ * when the stored hash uses another algorithm or cost than the current encoder.
+ */
+@Component
+public class UserInfoPasswordService implements UserDetailsPasswordService {
+
+    @Autowired
+    private UserInfoRepository userInfoRepository;
+
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserInfo userInfo = userInfoRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User is not found with : " + user.getUsername()));
+        userInfo.setPassword(newPassword);
+        userInfoRepository.save(userInfo);
+        userDetailsService.evict(userInfo.getUsername());
+        return new MyUserDetails(userInfo);
+    }
+}
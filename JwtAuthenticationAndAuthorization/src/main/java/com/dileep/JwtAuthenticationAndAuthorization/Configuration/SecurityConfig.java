@@ -1,26 +1,48 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Configuration;
 
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.Authority;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.BoundedPasswordEncoder;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.CachedUserDetailsService;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MaskAuthorizationManager;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MaskMethodAuthorizationManager;
 import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetailsService;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PasswordEncoderCalibration;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PasswordHashingExecutor;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PublicEndpoints;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.RequiresAuthority;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.UserInfoPasswordService;
+import com.dileep.JwtAuthenticationAndAuthorization.Filters.BearerTokenAuthenticationEntryPoint;
 import com.dileep.JwtAuthenticationAndAuthorization.Filters.JwtFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.authorization.AuthorizationDecision;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+
+import java.time.Duration;
 
 
 @Configuration
@@ -31,22 +53,62 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private BearerTokenAuthenticationEntryPoint authenticationEntryPoint;
+
+    @Autowired
+    private PublicEndpoints publicEndpoints;
+
     @Bean
-    public PasswordEncoder encoder(){
-        return  new BCryptPasswordEncoder();
+    public PasswordEncoder encoder(PasswordHashingExecutor passwordHashingExecutor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${security.password.encoding-id:bcrypt}") String encodingId,
+                                   @Value("${security.password.bcrypt-strength:0}") int bcryptStrength,
+                                   @Value("${security.password.target-hash-time:100ms}") Duration targetHashTime,
+                                   @Value("${security.password.min-bcrypt-strength:10}") int minBcryptStrength,
+                                   @Value("${security.password.max-bcrypt-strength:16}") int maxBcryptStrength){
+        // 0 = benchmark this host and pick the strength that hits the target time
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : PasswordEncoderCalibration.calibrateBCryptStrength(targetHashTime, minBcryptStrength, maxBcryptStrength);
+        // the strength this node hashes with, nodes on different hardware may differ
+        Gauge.builder("security.password.bcrypt-strength", () -> strength).register(meterRegistry);
+        return  new BoundedPasswordEncoder(PasswordEncoderCalibration.delegatingEncoder(encodingId, strength), passwordHashingExecutor);
     }
 
+    /**
+     * dedicated, bounded pool for BCrypt so /login and /signup bursts can't take every request thread
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordHashingExecutor passwordHashingExecutor(MeterRegistry meterRegistry,
+                                                           @Value("${security.password-hashing.threads:0}") int threads,
+                                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                                           @Value("${security.password-hashing.max-wait:2s}") Duration maxWait,
+                                                           @Value("${security.password-hashing.retry-after:1s}") Duration retryAfter){
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new PasswordHashingExecutor(poolSize, queueCapacity, maxWait, retryAfter, meterRegistry);
+    }
+
+    /**
+     * MyUserDetailsService behind a cache, UserInfoService evicts users when they change
+     */
     @Bean
     @Primary
-    public UserDetailsService userDetailsService(){
-        return  new MyUserDetailsService();
+    public CachedUserDetailsService userDetailsService(MyUserDetailsService myUserDetailsService,
+                                                      MeterRegistry meterRegistry,
+                                                      @Value("${security.user-cache.ttl:5m}") Duration ttl,
+                                                      @Value("${security.user-cache.maximum-size:10000}") long maximumSize){
+        return  new CachedUserDetailsService(myUserDetailsService, ttl, maximumSize, meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder encoder) {
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder encoder,
+                                                           UserInfoPasswordService userInfoPasswordService) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
         // authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(encoder);
+        // hashes with an outdated algorithm or cost are rewritten after a successful login
+        authProvider.setUserDetailsPasswordService(userInfoPasswordService);
         return authProvider;
     }
     /**
@@ -64,6 +126,29 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    /**
+     * compiles every @RequiresAuthority rule once the singletons exist, a broken rule fails the startup
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static MaskMethodAuthorizationManager requiresAuthorityManager(ListableBeanFactory beanFactory) {
+        return new MaskMethodAuthorizationManager(beanFactory);
+    }
+
+    /**
+     * Method-based Authorization for @RequiresAuthority, compiled into mask checks
+     * instead of evaluating a SpEL expression on every call
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresAuthorityAdvisor(MaskMethodAuthorizationManager requiresAuthorityManager) {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                new AnnotationMatchingPointcut(null, RequiresAuthority.class, true),
+                requiresAuthorityManager);
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -72,33 +157,37 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth ->{
                     auth
                             // recommended format
-                            .requestMatchers(HttpMethod.POST, "/api/products").hasAuthority("PRODUCT_CREATE")
-                            .requestMatchers(HttpMethod.PUT, "/api/products/update/*").hasAuthority("PRODUCT_UPDATE")
-                            .requestMatchers(HttpMethod.DELETE, "/api/products/delete/*").hasAuthority("PRODUCT_DELETE")
+                            .requestMatchers(HttpMethod.POST, "/api/products").access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_CREATE))
+                            // every item is checked again against its own authority
+                            .requestMatchers(HttpMethod.POST, "/api/products/bulk")
+                            .access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_CREATE, Authority.PRODUCT_UPDATE, Authority.PRODUCT_DELETE))
+                            .requestMatchers(HttpMethod.PUT, "/api/products/update/*").access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_UPDATE))
+                            .requestMatchers(HttpMethod.DELETE, "/api/products/delete/*").access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_DELETE))
                             // .requestMatchers(HttpMethod.GET,"/api/products").hasAuthority("PRODUCT_VIEW")
 
                             .requestMatchers(HttpMethod.GET, "/api/products/getProduct/*")
-                            .access((authentication, context) -> {
-                                boolean hasView = authentication.get().getAuthorities().stream()
-                                        .anyMatch(a -> a.getAuthority().equals("PRODUCT_VIEW"));
-                                boolean hasUserRole = authentication.get().getAuthorities().stream()
-                                        .anyMatch(a -> a.getAuthority().equals("ROLE_CUSTOMER_SERVICE"));
-                                return hasView || hasUserRole
-                                        ? new AuthorizationDecision(true)
-                                        : new AuthorizationDecision(false);
-                            })
+                            .access(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW, Authority.ROLE_CUSTOMER_SERVICE))
 
                             // normal way not recommended
                             // .requestMatchers("/api/products","/api/products/update/*","/api/products/delete/*").hasRole("admin")
                             // .requestMatchers("/api/products/getProduct/*").hasRole("user")
-                            .requestMatchers("/api/User/**").permitAll()
+                            // the same matcher JwtFilter skips
+                            .requestMatchers(publicEndpoints.getMatcher()).permitAll()
                             .anyRequest().authenticated();
                 })
                 //  session Management
-                .sessionManagement(session->{
-                    session.sessionCreationPolicy(SessionCreationPolicy.STATELESS);
-                })
-                .httpBasic(Customizer.withDefaults())
+                // .sessionManagement(session->{
+                //     session.sessionCreationPolicy(SessionCreationPolicy.STATELESS);
+                // })
+                // stateless by hand: STATELESS also adds SessionManagementFilter, which reads the security
+                // context on every request and would force JwtFilter's deferred token check.
+                // What STATELESS would have set instead: the context lives in a request attribute only
+                // (never in an HttpSession), and no request is saved for a redirect after login
+                .sessionManagement(session -> session.disable())
+                .securityContext(securityContext -> securityContext.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .requestCache(requestCache -> requestCache.requestCache(new NullRequestCache()))
+                // 401 with a Bearer challenge, also for tokens JwtFilter rejects
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(authenticationEntryPoint))
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
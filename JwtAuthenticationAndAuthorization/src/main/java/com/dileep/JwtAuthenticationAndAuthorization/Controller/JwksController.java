@@ -0,0 +1,27 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Controller;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Service.JwksService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class JwksController {
+
+    @Autowired
+    JwksService jwksService;
+
+    // public keys for offline token verification; cacheable, If-None-Match is answered with 304
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<String> jwks() {
+        JwksService.Document document = jwksService.getDocument();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(jwksService.getMaxAge()).cachePublic())
+                .eTag(document.etag())
+                .body(document.json());
+    }
+}
@@ -1,15 +1,22 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Controller;
 
 
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.Authority;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.RequiresAuthority;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductOperation;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductScrollResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
 import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.ProductBulkService;
 import com.dileep.JwtAuthenticationAndAuthorization.Service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -21,9 +28,15 @@ import java.util.Optional;
 @RequestMapping("/api/products")
 public class ProductController {
 
+    // larger requested pages are cut to this size, every page may end up in ProductCache
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductBulkService productBulkService;
+
     // Create a new product
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
@@ -31,25 +44,65 @@ public class ProductController {
         return ResponseEntity.ok(savedProduct);
     }
 
+    // Create, update and delete many products in one request, with a result per item
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkProductResponse> bulkProducts(@RequestBody List<BulkProductOperation> operations, Authentication authentication) {
+        if (operations.size() > productBulkService.getMaxOperations()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(productBulkService.apply(operations, authentication));
+    }
+
     // Get all products
     @GetMapping
-    @PreAuthorize("hasAuthority('PRODUCT_VIEW') and isAuthenticated()")
-    public ResponseEntity<Page<Product>> getAllProducts(
+    @RequiresAuthority(Authority.PRODUCT_VIEW)
+    public ResponseEntity<Page<ProductView>> getAllProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "productName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir
+    )
+    {
+        return ResponseEntity.ok(productService.getAllProducts(pageRequest(page, size, sortBy, sortDir)));
+    }
+
+    // Search products by name prefix / fragment, price range and stock
+    @GetMapping("/search")
+    @RequiresAuthority(Authority.PRODUCT_VIEW)
+    public ResponseEntity<Page<ProductView>> searchProducts(
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String nameContains,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "productName") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir
     )
+    {
+        Pageable pageable = pageRequest(page, size, sortBy, sortDir);
+        return ResponseEntity.ok(productService.searchProducts(namePrefix, nameContains, minPrice, maxPrice, inStock, pageable));
+    }
+
+    // Scroll products page by page with a cursor, no total count
+    @GetMapping("/scroll")
+    @RequiresAuthority(Authority.PRODUCT_VIEW)
+    public ResponseEntity<ProductScrollResponse> scrollProducts(
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "productName") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String cursor
+    )
     {
         Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, direction, sortBy);
-        return ResponseEntity.ok(productService.getAllProducts(pageable));
+        return ResponseEntity.ok(productService.scrollProducts(sortBy, direction, size, cursor));
     }
 
     // Get product by ID
     @GetMapping("/getProduct/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id) {
+        Optional<ProductView> product = productService.getProductById(id);
          return  product.map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -68,8 +121,14 @@ public class ProductController {
     // Delete product
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        productService.deleteProduct(id);
+        if (!productService.deleteProduct(id)) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.noContent().build();
     }
-}
 
+    private static Pageable pageRequest(int page, int size, String sortBy, String sortDir) {
+        Sort.Direction direction = sortDir.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), direction, sortBy);
+    }
+}
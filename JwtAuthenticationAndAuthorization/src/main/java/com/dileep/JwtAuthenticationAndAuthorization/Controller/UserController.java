@@ -2,12 +2,15 @@ package com.dileep.JwtAuthenticationAndAuthorization.Controller;
 
 
 import com.dileep.JwtAuthenticationAndAuthorization.DTO.AuthRequest;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.RefreshRequest;
 import com.dileep.JwtAuthenticationAndAuthorization.DTO.SignupRequest;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.TokenResponse;
 import com.dileep.JwtAuthenticationAndAuthorization.Service.UserInfoService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,4 +31,25 @@ public class UserController {
         return  userInfoService.getToken(authRequest);
     }
 
+    // Same login, but also returns a refresh token
+    @PostMapping("/token")
+    public ResponseEntity<TokenResponse> token(@RequestBody AuthRequest authRequest){
+        return ResponseEntity.ok(userInfoService.getTokens(authRequest));
+    }
+
+    // New access token for a refresh token, the refresh token is replaced too
+    @PostMapping("/refresh")
+    public ResponseEntity<TokenResponse> refresh(@RequestBody RefreshRequest request){
+        return ResponseEntity.ok(userInfoService.refresh(request.getRefreshToken()));
+    }
+
+    // Revoke the bearer token right away, and the refresh token if it is sent along
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                         @RequestBody(required = false) RefreshRequest request){
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        userInfoService.logout(accessToken, request == null ? null : request.getRefreshToken());
+        return ResponseEntity.ok("logged out");
+    }
+
 }
@@ -0,0 +1,26 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One item of a bulk request: CREATE uses the product fields, UPDATE the id and the product fields, DELETE the id.
+ * version is optional on UPDATE and DELETE, when given the write only applies to that version.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BulkProductOperation {
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    private Type op;
+    private Long id;
+    private String productName;
+    private Double price;
+    private Integer quantity;
+    private Long version;
+}
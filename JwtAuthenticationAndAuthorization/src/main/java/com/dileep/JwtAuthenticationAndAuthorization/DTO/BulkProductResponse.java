@@ -0,0 +1,18 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BulkProductResponse {
+    private int succeeded;
+    private int failed;
+    private List<BulkProductResult> results;
+}
@@ -0,0 +1,29 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one bulk item, index is its position in the request.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class BulkProductResult {
+
+    // SUPERSEDED: an update the same request deleted afterwards, accepted but not written
+    public enum Status { CREATED, UPDATED, DELETED, SUPERSEDED, NOT_FOUND, CONFLICT, FORBIDDEN, INVALID, FAILED }
+
+    private int index;
+    private BulkProductOperation.Type op;
+    private Long id;
+    private Status status;
+    private String message;
+
+    public boolean isSuccess() {
+        return status == Status.CREATED || status == Status.UPDATED || status == Status.DELETED || status == Status.SUPERSEDED;
+    }
+}
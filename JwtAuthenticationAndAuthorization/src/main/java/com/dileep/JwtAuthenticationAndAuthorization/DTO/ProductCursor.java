@@ -0,0 +1,58 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidScrollRequestException;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a keyset scroll: sort column and direction plus the (sort value, id) of the last product returned.
+ * Clients only see it as an opaque base64url token.
+ */
+@Value
+public class ProductCursor {
+
+    private static final String SEPARATOR = "|";
+
+    String sortBy;
+    Sort.Direction direction;
+    Long lastId;
+    // null when sorting by id
+    String lastValue;
+
+    public static ProductCursor after(Product product, String sortBy, Sort.Direction direction) {
+        String lastValue = switch (sortBy) {
+            case "productName" -> product.getProductName();
+            case "price" -> String.valueOf(product.getPrice());
+            default -> null;
+        };
+        return new ProductCursor(sortBy, direction, product.getId(), lastValue);
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + direction + SEPARATOR + lastId + (lastValue == null ? "" : SEPARATOR + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // the value goes last, a product name may contain the separator
+            String[] parts = raw.split("\\|", 4);
+            String lastValue = parts.length == 4 ? parts[3] : null;
+            if (parts.length < 3 || (lastValue == null) != parts[0].equals("id")) {
+                throw new InvalidScrollRequestException("Invalid cursor");
+            }
+            if (parts[0].equals("price")) {
+                Double.parseDouble(lastValue);
+            }
+            return new ProductCursor(parts[0], Sort.Direction.valueOf(parts[1]), Long.valueOf(parts[2]), lastValue);
+        } catch (IllegalArgumentException e) {
+            // bad base64, direction or number
+            throw new InvalidScrollRequestException("Invalid cursor");
+        }
+    }
+}
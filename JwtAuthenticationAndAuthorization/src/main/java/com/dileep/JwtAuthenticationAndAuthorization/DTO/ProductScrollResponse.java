@@ -0,0 +1,24 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset scroll, pass nextCursor back to get the following slice.
+ * There is no total count, nextCursor is null on the last slice.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class ProductScrollResponse {
+    private List<Product> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
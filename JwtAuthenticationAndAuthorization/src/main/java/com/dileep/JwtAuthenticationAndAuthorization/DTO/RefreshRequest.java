@@ -0,0 +1,14 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class RefreshRequest {
+    private String refreshToken;
+}
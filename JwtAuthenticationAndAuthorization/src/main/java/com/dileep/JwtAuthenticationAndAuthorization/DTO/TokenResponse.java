@@ -0,0 +1,22 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Returned by /api/User/token and /api/User/refresh.
+ * expiresIn is the access token lifetime in seconds, the refresh token can be exchanged once for the next pair.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class TokenResponse {
+    private String accessToken;
+    private String tokenType;
+    private long expiresIn;
+    private String refreshToken;
+    private long refreshExpiresIn;
+}
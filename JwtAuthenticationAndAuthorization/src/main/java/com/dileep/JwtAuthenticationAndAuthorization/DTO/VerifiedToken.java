@@ -0,0 +1,30 @@
+package com.dileep.JwtAuthenticationAndAuthorization.DTO;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PermissionDictionary.Permissions;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature has already been verified.
+ * Built once per request so the filter never parses the same token twice.
+ */
+@Value
+public class VerifiedToken {
+    // jti, null for tokens issued before it was added
+    String id;
+    String subject;
+    // from the roles list or the compact perms claim, authorities already resolved
+    Permissions permissions;
+    Instant expiration;
+    Instant issuedAt;
+
+    public List<String> getRoles() {
+        return permissions.names();
+    }
+
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+}
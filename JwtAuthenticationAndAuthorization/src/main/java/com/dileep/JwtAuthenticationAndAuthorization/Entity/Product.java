@@ -6,15 +6,22 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        // keyset scrolling seeks on (sort column, id)
+        @Index(name = "idx_products_product_name_id", columnList = "product_name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Builder
 public class Product {
 
+    // sequence ids let Hibernate batch inserts (IDENTITY needs one round-trip per row),
+    // one sequence call hands out 50 ids; products-sequence.sql moves it past ids created before the switch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "product_name", nullable = false)
@@ -25,6 +32,11 @@ public class Product {
 
     private Integer quantity;
 
+    // optimistic lock: bumped by every update, an update carrying a stale version is rejected with 409
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     // toString()
     @Override
     public String toString() {
@@ -33,6 +45,7 @@ public class Product {
                 ", productName='" + productName + '\'' +
                 ", price=" + price +
                 ", quantity=" + quantity +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,64 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Server-side record of one refresh token. Only an HMAC of the token is stored (32 bytes), never the token itself.
+ * Every refresh uses the token up and issues the next one in the same family, a token presented after it was used
+ * means it leaked, so the whole family is revoked.
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_username", columnList = "username"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // unique, the lookup on every refresh
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(name = "family_id", nullable = false)
+    private UUID familyId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // set when the token is exchanged, null while it can still be used
+    @Column(name = "used_at")
+    private Instant usedAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                ", familyId=" + familyId +
+                ", expiresAt=" + expiresAt +
+                ", usedAt=" + usedAt +
+                ", revoked=" + revoked +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Exception;
+
+import lombok.Getter;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Why JwtFilter turned a bearer token down. Answered with 401 by BearerTokenAuthenticationEntryPoint.
+ *
+ * Every rejection gets its own instance, which never records a stack trace, so a flood of bad tokens costs
+ * little more than the checks that catch them. Instances are not shared: AuthenticationException has no
+ * constructor that disables suppression, so a shared one would collect addSuppressed calls across requests.
+ */
+@Getter
+public class InvalidBearerTokenException extends AuthenticationException {
+
+    @Getter
+    public enum Reason {
+        MALFORMED("The token is malformed"),
+        UNSUPPORTED_ALGORITHM("The token algorithm is not supported"),
+        UNKNOWN_KEY("The token was signed with an unknown key"),
+        EXPIRED("The token has expired"),
+        BAD_SIGNATURE("The token signature is invalid"),
+        REVOKED("The token has been revoked"),
+        INVALID("The token is invalid");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+    }
+
+    private final Reason reason;
+
+    private InvalidBearerTokenException(Reason reason) {
+        super(reason.description);
+        this.reason = reason;
+    }
+
+    public static InvalidBearerTokenException of(Reason reason) {
+        return new InvalidBearerTokenException(reason);
+    }
+
+    // thrown often, a stack trace would only cost time and say nothing
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,12 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Exception;
+
+/**
+ * Thrown when a refresh token is unknown, expired, revoked or already used.
+ * Mapped to 401, the client has to log in again.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
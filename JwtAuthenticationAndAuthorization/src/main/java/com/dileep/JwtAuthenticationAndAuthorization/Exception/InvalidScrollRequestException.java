@@ -0,0 +1,12 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Exception;
+
+/**
+ * Thrown for a scroll request with an unknown sort column, a bad size or a cursor that can't be decoded.
+ * Mapped to 400.
+ */
+public class InvalidScrollRequestException extends RuntimeException {
+
+    public InvalidScrollRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown when the password hashing pool is saturated.
+ * Mapped to 503 with a Retry-After header instead of queueing the request indefinitely.
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
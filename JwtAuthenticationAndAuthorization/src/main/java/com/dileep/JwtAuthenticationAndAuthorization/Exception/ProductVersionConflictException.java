@@ -0,0 +1,12 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Exception;
+
+/**
+ * Thrown when an update carries a version that is no longer the current one, someone else changed the product first.
+ * Mapped to 409.
+ */
+public class ProductVersionConflictException extends RuntimeException {
+
+    public ProductVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Filters;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * 401 with a Bearer challenge (RFC 6750). A rejected token gets error="invalid_token" and the reason,
+ * a request without credentials only the plain challenge.
+ */
+@Component
+public class BearerTokenAuthenticationEntryPoint implements AuthenticationEntryPoint {
+
+    @Override
+    public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException {
+        String challenge = "Bearer";
+        String body = "Authentication required";
+        if (authException instanceof InvalidBearerTokenException invalidToken) {
+            body = invalidToken.getReason().getDescription();
+            challenge = "Bearer error=\"invalid_token\", error_description=\"" + body + "\"";
+        }
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(body);
+    }
+}
@@ -0,0 +1,137 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Filters;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException.Reason;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningAlgorithm;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningKeyRing;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.Key;
+import java.util.Base64;
+
+/**
+ * Cheap checks JwtFilter runs before it spends anything on a token: no signature check, no full parse.
+ *
+ * checkStructure (before the verified token cache): length limit, exactly three non-empty segments, base64url only.
+ * checkHeaderAndExpiry (only on a cache miss): alg must be one we sign with and the signature as long as that
+ * algorithm's, the kid must be in the key ring with a key of the same algorithm (no HS256 token checked against a
+ * public key), and the exp claim, peeked at without verifying, must still be in the future.
+ */
+@Component
+public class BearerTokenPrecheck {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    @Autowired
+    private SigningKeyRing keyRing;
+
+    @Value("${jwt.precheck.max-length:4096}")
+    private int maxLength;
+
+    public void checkStructure(String token) {
+        if (token.isEmpty() || token.length() > maxLength) {
+            throw InvalidBearerTokenException.of(Reason.MALFORMED);
+        }
+        int dots = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++dots > 2) {
+                    throw InvalidBearerTokenException.of(Reason.MALFORMED);
+                }
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                throw InvalidBearerTokenException.of(Reason.MALFORMED);
+            }
+        }
+        if (dots != 2 || segmentLength == 0) {
+            throw InvalidBearerTokenException.of(Reason.MALFORMED);
+        }
+    }
+
+    /**
+     * expects a token that passed checkStructure
+     */
+    public void checkHeaderAndExpiry(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+
+        String algorithm = null;
+        String keyId = null;
+        try (JsonParser parser = JSON.createParser(decode(token, 0, headerEnd))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw InvalidBearerTokenException.of(Reason.MALFORMED);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("alg".equals(field) && value == JsonToken.VALUE_STRING) {
+                    algorithm = parser.getText();
+                } else if ("kid".equals(field) && value == JsonToken.VALUE_STRING) {
+                    keyId = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw InvalidBearerTokenException.of(Reason.MALFORMED);
+        }
+        SigningAlgorithm signingAlgorithm = SigningAlgorithm.forHeader(algorithm);
+        if (signingAlgorithm == null) {
+            throw InvalidBearerTokenException.of(Reason.UNSUPPORTED_ALGORITHM);
+        }
+        if (token.length() - payloadEnd - 1 != signingAlgorithm.getEncodedSignatureLength()) {
+            throw InvalidBearerTokenException.of(Reason.MALFORMED);
+        }
+        Key key = keyRing.getKey(keyId);
+        if (key == null) {
+            throw InvalidBearerTokenException.of(Reason.UNKNOWN_KEY);
+        }
+        if (SigningAlgorithm.of(key) != signingAlgorithm) {
+            throw InvalidBearerTokenException.of(Reason.UNSUPPORTED_ALGORITHM);
+        }
+
+        long expiresAt = peekExpiry(token, headerEnd + 1, payloadEnd);
+        if (expiresAt * 1000 <= System.currentTimeMillis()) {
+            throw InvalidBearerTokenException.of(Reason.EXPIRED);
+        }
+    }
+
+    // exp of the payload, top-level fields only, the rest is skipped without building any objects
+    private static long peekExpiry(String token, int start, int end) {
+        try (JsonParser parser = JSON.createParser(decode(token, start, end))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw InvalidBearerTokenException.of(Reason.MALFORMED);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("exp".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    return parser.getLongValue();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            throw InvalidBearerTokenException.of(Reason.MALFORMED);
+        }
+        // every token we issue has exp, JwtFilter relies on it
+        throw InvalidBearerTokenException.of(Reason.MALFORMED);
+    }
+
+    private static byte[] decode(String token, int start, int end) {
+        try {
+            return Base64.getUrlDecoder().decode(token.substring(start, end));
+        } catch (IllegalArgumentException e) {
+            throw InvalidBearerTokenException.of(Reason.MALFORMED);
+        }
+    }
+}
@@ -1,6 +1,13 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Filters;
 
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.RevokedTokenDenylist;
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.VerifiedTokenCache;
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.VerifiedTokenCache.CachedAuthentication;
 import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PublicEndpoints;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.VerifiedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException.Reason;
 import com.dileep.JwtAuthenticationAndAuthorization.Service.JWTService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,19 +16,17 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 @Service
 public class JwtFilter extends OncePerRequestFilter {
@@ -32,34 +37,118 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     ApplicationContext context;
 
+    @Autowired
+    VerifiedTokenCache tokenCache;
+
+    @Autowired
+    RevokedTokenDenylist revokedTokens;
+
+    @Autowired
+    BearerTokenPrecheck precheck;
+
+    @Autowired
+    TokenRejectionMetrics rejectionMetrics;
+
+    @Autowired
+    PublicEndpoints publicEndpoints;
+
+    // public endpoints never look at the token, a stale Authorization header there costs nothing
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicEndpoints.getMatcher().matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader=request.getHeader("Authorization");
-        String token= null;
-        String username=null;
-        List<String> roles= new ArrayList<>();
         if(authHeader!=null && authHeader.startsWith("Bearer ")){
-            token = authHeader.substring(7);
-            username = jwtService.extractUserName(token);
-            roles= jwtService.extractRoles(token);
+            String token = authHeader.substring(7);
+            SecurityContextHolderStrategy strategy = SecurityContextHolder.getContextHolderStrategy();
+            Supplier<SecurityContext> previous = strategy.getDeferredContext();
+
+            // nothing is verified here: the token is checked the first time something asks for the
+            // authentication, normally the authorization filter. A rejection is thrown from there and
+            // ExceptionTranslationFilter answers it through the Bearer entry point with a 401
+            strategy.setDeferredContext(new DeferredTokenContext(() -> {
+                SecurityContext context = previous.get();
+                if(context.getAuthentication() != null){
+                    return context;
+                }
+                SecurityContext authenticated = strategy.createEmptyContext();
+                authenticated.setAuthentication(authenticate(token, request));
+                return authenticated;
+            }));
         }
-        if(username!=null && SecurityContextHolder.getContext().getAuthentication() == null){
-          // here hit Db to get the userDetails for every request will slow down performance
-            // UserDetailsService userDetailsService = context.getBean(UserDetailsService.class);
-           // UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        filterChain.doFilter(request,response);
 
+    }
+
+    private Authentication authenticate(String token, HttpServletRequest request) {
+        try {
+            // garbage is turned away before it costs a hash, a parse or a signature check
+            precheck.checkStructure(token);
 
-            UserDetails userDetails= new MyUserDetails(username,"",roles);
+            // same token seen before: skip parsing and signature check altogether
+            CachedAuthentication cached = tokenCache.get(token);
+            if(cached == null){
+                // alg, kid and exp are peeked at first, forged or expired tokens never reach the signature check
+                precheck.checkHeaderAndExpiry(token);
 
-            if(jwtService.validateToken(token,userDetails)){
-                UsernamePasswordAuthenticationToken authToken= new UsernamePasswordAuthenticationToken(
-                         userDetails,null,userDetails.getAuthorities());
+                // token is parsed and signature-checked once, everything below reads the verified claims
+                VerifiedToken verifiedToken = jwtService.verify(token);
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                // here hit Db to get the userDetails for every request will slow down performance
+                // UserDetailsService userDetailsService = context.getBean(UserDetailsService.class);
+                // UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails= new MyUserDetails(verifiedToken.getSubject(),"",verifiedToken.getPermissions());
+
+                if(!jwtService.validateToken(verifiedToken,userDetails)){
+                    throw InvalidBearerTokenException.of(Reason.INVALID);
+                }
+                cached = tokenCache.put(token, verifiedToken.getId(), userDetails, verifiedToken.getExpiration());
             }
+
+            // revoked (logged out) tokens are rejected, an in-memory check with no DB hit
+            if(revokedTokens.isRevoked(cached.getTokenId())){
+                throw InvalidBearerTokenException.of(Reason.REVOKED);
+            }
+
+            UsernamePasswordAuthenticationToken authToken= new UsernamePasswordAuthenticationToken(
+                     cached.getPrincipal(),null,cached.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            return authToken;
+        } catch (InvalidBearerTokenException e) {
+            rejectionMetrics.increment(e.getReason());
+            throw e;
+        }
+    }
+
+    /**
+     * runs the verification at most once per request, later reads get the same context or the same rejection
+     */
+    private static final class DeferredTokenContext implements Supplier<SecurityContext> {
+        private Supplier<SecurityContext> verification;
+        private SecurityContext context;
+        private InvalidBearerTokenException rejection;
+
+        private DeferredTokenContext(Supplier<SecurityContext> verification) {
+            this.verification = verification;
         }
-        filterChain.doFilter(request,response);
 
+        @Override
+        public SecurityContext get() {
+            if (verification != null) {
+                try {
+                    context = verification.get();
+                } catch (InvalidBearerTokenException e) {
+                    rejection = e;
+                }
+                verification = null;
+            }
+            if (rejection != null) {
+                throw rejection;
+            }
+            return context;
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Filters;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException.Reason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * jwt.rejected{reason=...}, one counter per rejection reason, registered up front so counting is a plain increment
+ */
+@Component
+public class TokenRejectionMetrics {
+
+    private final Map<Reason, Counter> counters = new EnumMap<>(Reason.class);
+
+    public TokenRejectionMetrics(MeterRegistry meterRegistry) {
+        for (Reason reason : Reason.values()) {
+            counters.put(reason, Counter.builder("jwt.rejected")
+                    .description("Bearer tokens rejected by JwtFilter")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void increment(Reason reason) {
+        counters.get(reason).increment();
+    }
+}
@@ -2,8 +2,10 @@ package com.dileep.JwtAuthenticationAndAuthorization;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class JwtAuthenticationAndAuthorizationApplication {
 
     public static void main(String[] args) {
@@ -1,10 +1,85 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Repository;
 
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
 import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ProductRepository extends JpaRepository<Product,Long> {
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepository extends JpaRepository<Product,Long>, ProductSearchRepository {
     Page<Product> findAll(Pageable pageable);
+
+    // read path: rows go straight into ProductView records, no managed entities and no flush
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(value = "select new com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView(p.id, p.productName, p.price, p.quantity, p.version) from Product p",
+            countQuery = "select count(p) from Product p")
+    Page<ProductView> findAllViews(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query("select new com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView(p.id, p.productName, p.price, p.quantity, p.version) from Product p where p.id = :id")
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    // keyset (seek) scrolling: no offset and no count query, every slice starts right after
+    // the (sort value, id) of the previous one, so deep slices cost the same as the first
+
+    @Query("select p from Product p")
+    List<Product> findFirstSlice(Sort sort, Limit limit);
+
+    @Query("select p from Product p where p.productName > :productName or (p.productName = :productName and p.id > :id) order by p.productName asc, p.id asc")
+    List<Product> findSliceAfterProductNameAsc(@Param("productName") String productName, @Param("id") Long id, Limit limit);
+
+    @Query("select p from Product p where p.productName < :productName or (p.productName = :productName and p.id < :id) order by p.productName desc, p.id desc")
+    List<Product> findSliceAfterProductNameDesc(@Param("productName") String productName, @Param("id") Long id, Limit limit);
+
+    @Query("select p from Product p where p.price > :price or (p.price = :price and p.id > :id) order by p.price asc, p.id asc")
+    List<Product> findSliceAfterPriceAsc(@Param("price") Double price, @Param("id") Long id, Limit limit);
+
+    @Query("select p from Product p where p.price < :price or (p.price = :price and p.id < :id) order by p.price desc, p.id desc")
+    List<Product> findSliceAfterPriceDesc(@Param("price") Double price, @Param("id") Long id, Limit limit);
+
+    @Query("select p from Product p where p.id > :id order by p.id asc")
+    List<Product> findSliceAfterIdAsc(@Param("id") Long id, Limit limit);
+
+    @Query("select p from Product p where p.id < :id order by p.id desc")
+    List<Product> findSliceAfterIdDesc(@Param("id") Long id, Limit limit);
+
+    // single round-trip writes: no load before the statement, the affected rows decide not-found / conflict
+
+    @Transactional
+    @Query(value = "update products set product_name = :productName, price = :price, quantity = :quantity, version = version + 1"
+            + " where id = :id returning *", nativeQuery = true)
+    Optional<Product> updateAndReturn(@Param("id") Long id, @Param("productName") String productName,
+                                      @Param("price") Double price, @Param("quantity") Integer quantity);
+
+    @Transactional
+    @Query(value = "update products set product_name = :productName, price = :price, quantity = :quantity, version = version + 1"
+            + " where id = :id and version = :version returning *", nativeQuery = true)
+    Optional<Product> updateAndReturnIfVersion(@Param("id") Long id, @Param("version") Long version, @Param("productName") String productName,
+                                               @Param("price") Double price, @Param("quantity") Integer quantity);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") Long id);
 }
@@ -0,0 +1,16 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Repository;
+
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Product search by Specification that selects straight into ProductView, like the other read queries.
+ * JpaSpecificationExecutor can only return entities.
+ */
+public interface ProductSearchRepository {
+
+    Page<ProductView> findViews(Specification<Product> spec, Pageable pageable);
+}
@@ -0,0 +1,73 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Repository;
+
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Criteria query with a constructor select: the five columns go into ProductView records,
+ * no entity is hydrated, snapshotted or dirty checked. The count query runs only when the page doesn't tell the total.
+ */
+public class ProductSearchRepositoryImpl implements ProductSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductView> findViews(Specification<Product> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductView> query = cb.createQuery(ProductView.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.construct(ProductView.class, product.get("id"), product.get("productName"),
+                product.get("price"), product.get("quantity"), product.get("version")));
+        where(query, product, cb, spec);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), product, cb));
+
+        TypedQuery<ProductView> typedQuery = readOnly(entityManager.createQuery(query));
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<ProductView> content = typedQuery.getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.count(product));
+        where(query, product, cb, spec);
+        return readOnly(entityManager.createQuery(query)).getSingleResult();
+    }
+
+    private static void where(CriteriaQuery<?> query, Root<Product> product, CriteriaBuilder cb, Specification<Product> spec) {
+        Predicate predicate = spec.toPredicate(product, query, cb);
+        // no filters at all gives no predicate
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    // same hints as the @Query read paths of ProductRepository
+    private static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query.setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, "MANUAL");
+    }
+}
@@ -0,0 +1,46 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Repository;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Locale;
+
+/**
+ * Filters for the product search, combined with Specification.allOf.
+ * Name filters compare lower(product_name), the expression the search indexes in db/products-search-indexes.sql are built on:
+ * the text_pattern_ops B-tree serves prefixes, the pg_trgm GIN index serves fragments. Price ranges use the (price, id) index.
+ */
+public final class ProductSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> nameStartsWith(String prefix) {
+        String pattern = escapeLike(prefix.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("productName")), pattern, ESCAPE);
+    }
+
+    public static Specification<Product> nameContains(String fragment) {
+        String pattern = "%" + escapeLike(fragment.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("productName")), pattern, ESCAPE);
+    }
+
+    public static Specification<Product> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> inStock() {
+        return (root, query, cb) -> cb.greaterThan(root.get("quantity"), 0);
+    }
+
+    // the user's text is matched literally, % and _ are not wildcards
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,38 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Repository;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    // marks the token used only if nobody did before, two concurrent refreshes with the same token can't both get 1
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.usedAt = :now where t.id = :id and t.usedAt is null and t.revoked = false")
+    int markUsed(@Param("id") Long id, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.revoked = false")
+    int revokeFamily(@Param("familyId") UUID familyId);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.username = :username and t.revoked = false")
+    int revokeAllForUser(@Param("username") String username);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,318 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PermissionDictionary;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes the compact JWS of JWTService by hand: header.payload.signature, each part base64url without padding.
+ * The claims are {"roles":[..],"jti":"..","sub":"..","iat":..,"exp":..}, the same JSON JJWT produced, and JJWT still
+ * parses and verifies every token. With the compact claim on, "roles":[..] becomes "perms":"..","pv":.. (see
+ * PermissionDictionary).
+ *
+ * Nothing is shared between calls except immutable data: the encoded header is built once per signing key,
+ * the claims are written straight into a byte buffer, and the Mac / Signature plus buffers are borrowed from a pool
+ * and handed back afterwards. The pool is used instead of a ThreadLocal because requests may run on virtual threads,
+ * where a ThreadLocal would be rebuilt for nearly every request. A token costs one signature and the final String.
+ */
+class CompactJwsWriter {
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    // buffers that grew past this (huge usernames or role lists) are not kept
+    private static final int MAX_POOLED_BUFFER = 16 * 1024;
+
+    private final ConcurrentLinkedQueue<Buffers> pool = new ConcurrentLinkedQueue<>();
+    private final PermissionDictionary permissionDictionary;
+    private volatile EncodedHeader header;
+
+    CompactJwsWriter(PermissionDictionary permissionDictionary) {
+        this.permissionDictionary = permissionDictionary;
+    }
+
+    String write(SigningKeyRing.SigningKey signingKey, UserDetails user, long issuedAt, long expiresAt) {
+        Buffers buffers = borrow();
+        try {
+            return write(buffers, encodedHeader(signingKey), signingKey, user, issuedAt, expiresAt);
+        } finally {
+            release(buffers);
+        }
+    }
+
+    // one borrowed Mac and buffer set for the whole batch
+    List<String> writeAll(SigningKeyRing.SigningKey signingKey, Collection<? extends UserDetails> users, long issuedAt, long expiresAt) {
+        byte[] encodedHeader = encodedHeader(signingKey);
+        List<String> tokens = new ArrayList<>(users.size());
+        Buffers buffers = borrow();
+        try {
+            for (UserDetails user : users) {
+                tokens.add(write(buffers, encodedHeader, signingKey, user, issuedAt, expiresAt));
+            }
+        } finally {
+            release(buffers);
+        }
+        return tokens;
+    }
+
+    private String write(Buffers buffers, byte[] encodedHeader, SigningKeyRing.SigningKey signingKey, UserDetails user, long issuedAt, long expiresAt) {
+        buffers.writeClaims(user, permissions(user), permissionDictionary.getVersion(), issuedAt, expiresAt);
+
+        int maxLength = encodedHeader.length + 1 + (buffers.jsonLength * 4 + 2) / 3 + 1 + signingKey.algorithm().getEncodedSignatureLength();
+        if (buffers.token.length < maxLength) {
+            buffers.token = new byte[Math.max(maxLength, buffers.token.length * 2)];
+        }
+        byte[] token = buffers.token;
+        System.arraycopy(encodedHeader, 0, token, 0, encodedHeader.length);
+        int length = encodedHeader.length;
+        token[length++] = '.';
+        length = encode(buffers.json, buffers.jsonLength, token, length);
+
+        int signatureLength;
+        try {
+            signatureLength = buffers.sign(signingKey, token, length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        token[length++] = '.';
+        length = encode(buffers.signature, signatureLength, token, length);
+        return new String(token, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private byte[] encodedHeader(SigningKeyRing.SigningKey signingKey) {
+        EncodedHeader current = header;
+        if (current == null || current.signingKey != signingKey) {
+            // first token or the key ring rotated; a race only builds the same bytes twice
+            byte[] json = ("{\"kid\":\"" + signingKey.id() + "\",\"alg\":\"" + signingKey.algorithm() + "\"}").getBytes(StandardCharsets.US_ASCII);
+            byte[] encoded = new byte[(json.length * 4 + 2) / 3];
+            current = new EncodedHeader(signingKey, Arrays.copyOf(encoded, encode(json, json.length, encoded, 0)));
+            header = current;
+        }
+        return current.encoded;
+    }
+
+    // null when the token gets the roles list
+    private String permissions(UserDetails user) {
+        return permissionDictionary.isCompactClaim() ? permissionDictionary.encode(user.getAuthorities()) : null;
+    }
+
+    private Buffers borrow() {
+        Buffers buffers = pool.poll();
+        return buffers != null ? buffers : new Buffers();
+    }
+
+    private void release(Buffers buffers) {
+        if (buffers.json.length <= MAX_POOLED_BUFFER && buffers.token.length <= MAX_POOLED_BUFFER) {
+            pool.offer(buffers);
+        }
+    }
+
+    // base64url without padding, returns the new end of dst
+    private static int encode(byte[] src, int length, byte[] dst, int dp) {
+        int sp = 0;
+        int full = length / 3 * 3;
+        while (sp < full) {
+            int bits = (src[sp++] & 0xff) << 16 | (src[sp++] & 0xff) << 8 | (src[sp++] & 0xff);
+            dst[dp++] = BASE64URL[(bits >>> 18) & 0x3f];
+            dst[dp++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[dp++] = BASE64URL[(bits >>> 6) & 0x3f];
+            dst[dp++] = BASE64URL[bits & 0x3f];
+        }
+        if (length - full == 1) {
+            int b0 = src[sp] & 0xff;
+            dst[dp++] = BASE64URL[b0 >>> 2];
+            dst[dp++] = BASE64URL[(b0 << 4) & 0x3f];
+        } else if (length - full == 2) {
+            int b0 = src[sp] & 0xff;
+            int b1 = src[sp + 1] & 0xff;
+            dst[dp++] = BASE64URL[b0 >>> 2];
+            dst[dp++] = BASE64URL[(b0 << 4 | b1 >>> 4) & 0x3f];
+            dst[dp++] = BASE64URL[(b1 << 2) & 0x3f];
+        }
+        return dp;
+    }
+
+    private record EncodedHeader(SigningKeyRing.SigningKey signingKey, byte[] encoded) {
+    }
+
+    private static final class Buffers {
+        private Mac mac;
+        private Signature signer;
+        private Key key;
+        private byte[] json = new byte[512];
+        private int jsonLength;
+        private byte[] token = new byte[1024];
+        // large enough for every SigningAlgorithm
+        private final byte[] signature = new byte[64];
+
+        // re-initialised only when the key ring has rotated, doFinal / sign leave the Mac / Signature ready for the next token
+        private int sign(SigningKeyRing.SigningKey signingKey, byte[] data, int length) throws GeneralSecurityException {
+            SigningAlgorithm algorithm = signingKey.algorithm();
+            if (algorithm.isSymmetric()) {
+                if (mac == null) {
+                    mac = Mac.getInstance(algorithm.getJcaName());
+                }
+                if (key != signingKey.key()) {
+                    mac.init((SecretKey) signingKey.key());
+                    key = signingKey.key();
+                }
+                mac.update(data, 0, length);
+                mac.doFinal(signature, 0);
+                return mac.getMacLength();
+            }
+            if (signer == null || !signer.getAlgorithm().equals(algorithm.getJcaName())) {
+                signer = algorithm.newSignature();
+                key = null;
+            }
+            if (key != signingKey.key()) {
+                signer.initSign((PrivateKey) signingKey.key());
+                key = signingKey.key();
+            }
+            signer.update(data, 0, length);
+            return signer.sign(signature, 0, signature.length);
+        }
+
+        private void writeClaims(UserDetails user, String perms, int permsVersion, long issuedAt, long expiresAt) {
+            jsonLength = 0;
+            if (perms != null) {
+                // base64url, nothing to escape
+                ascii("{\"perms\":\"");
+                ascii(perms);
+                ascii("\",\"pv\":");
+                number(permsVersion);
+            } else {
+                ascii("{\"roles\":[");
+                boolean first = true;
+                for (GrantedAuthority authority : user.getAuthorities()) {
+                    if (!first) {
+                        ascii(",");
+                    }
+                    string(authority.getAuthority());
+                    first = false;
+                }
+                ascii("]");
+            }
+            ascii(",\"jti\":\"");
+            tokenId();
+            ascii("\",\"sub\":");
+            string(user.getUsername());
+            ascii(",\"iat\":");
+            number(issuedAt);
+            ascii(",\"exp\":");
+            number(expiresAt);
+            ascii("}");
+        }
+
+        // random version 4 UUID written as text; a jti only has to be unique, not secret
+        private void tokenId() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+            long low = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            hex(high >>> 32, 8);
+            ascii("-");
+            hex(high >>> 16, 4);
+            ascii("-");
+            hex(high, 4);
+            ascii("-");
+            hex(low >>> 48, 4);
+            ascii("-");
+            hex(low, 12);
+        }
+
+        private void hex(long value, int digits) {
+            ensure(digits);
+            for (int i = digits - 1; i >= 0; i--) {
+                json[jsonLength + i] = HEX[(int) (value & 0xf)];
+                value >>>= 4;
+            }
+            jsonLength += digits;
+        }
+
+        private void number(long value) {
+            ensure(20);
+            if (value == 0) {
+                json[jsonLength++] = '0';
+                return;
+            }
+            if (value < 0) {
+                json[jsonLength++] = '-';
+                value = -value;
+            }
+            int digits = 0;
+            for (long rest = value; rest > 0; rest /= 10) {
+                digits++;
+            }
+            for (int i = digits - 1; i >= 0; i--) {
+                json[jsonLength + i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            jsonLength += digits;
+        }
+
+        private void ascii(String constant) {
+            ensure(constant.length());
+            for (int i = 0; i < constant.length(); i++) {
+                json[jsonLength++] = (byte) constant.charAt(i);
+            }
+        }
+
+        // JSON string, escaped and UTF-8 encoded
+        private void string(String value) {
+            ensure(value.length() * 6 + 2);
+            json[jsonLength++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    json[jsonLength++] = '\\';
+                    json[jsonLength++] = (byte) c;
+                } else if (c < 0x20) {
+                    json[jsonLength++] = '\\';
+                    json[jsonLength++] = 'u';
+                    json[jsonLength++] = '0';
+                    json[jsonLength++] = '0';
+                    json[jsonLength++] = HEX[c >>> 4];
+                    json[jsonLength++] = HEX[c & 0xf];
+                } else if (c < 0x80) {
+                    json[jsonLength++] = (byte) c;
+                } else if (c < 0x800) {
+                    json[jsonLength++] = (byte) (0xc0 | c >>> 6);
+                    json[jsonLength++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    json[jsonLength++] = (byte) (0xf0 | codePoint >>> 18);
+                    json[jsonLength++] = (byte) (0x80 | (codePoint >>> 12) & 0x3f);
+                    json[jsonLength++] = (byte) (0x80 | (codePoint >>> 6) & 0x3f);
+                    json[jsonLength++] = (byte) (0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    // lone surrogate, same replacement String.getBytes would use
+                    json[jsonLength++] = '?';
+                } else {
+                    json[jsonLength++] = (byte) (0xe0 | c >>> 12);
+                    json[jsonLength++] = (byte) (0x80 | (c >>> 6) & 0x3f);
+                    json[jsonLength++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            json[jsonLength++] = '"';
+        }
+
+        private void ensure(int extra) {
+            if (jsonLength + extra > json.length) {
+                json = Arrays.copyOf(json, Math.max(json.length * 2, jsonLength + extra));
+            }
+        }
+    }
+}
@@ -1,101 +1,168 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Service;
 
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PermissionDictionary;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.VerifiedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException.Reason;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.security.core.GrantedAuthority;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
-import java.security.NoSuchAlgorithmException;
+import java.security.Key;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class JWTService {
 
-    Map<String, Object> claims= new HashMap<>();
-    private String MY_SECRET_KEY="";
+    private static final Duration DEFAULT_ACCESS_TOKEN_TTL = Duration.ofMinutes(15);
+
+    // signing keys come from the key ring, verification resolves the key by the kid in the token header
+    private final SigningKeyRing keyRing;
+    // built once at startup, immutable and thread-safe
+    private final JwtParser jwtParser;
+    // short on purpose, clients renew through /api/User/refresh instead of logging in again
+    private final Duration accessTokenTtl;
+    // roles as a list or as the compact perms bitmask
+    private final PermissionDictionary permissionDictionary;
+    // mints the tokens, thread-safe
+    private final CompactJwsWriter jwsWriter;
 
     public JWTService(){
-        try {
-            KeyGenerator Key_generator= KeyGenerator.getInstance("HmacSHA256");
-            SecretKey secretKey= Key_generator.generateKey();
-            MY_SECRET_KEY= Base64.getEncoder().encodeToString(secretKey.getEncoded());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+        this(SigningKeyRing.ephemeral(), DEFAULT_ACCESS_TOKEN_TTL);
+    }
+
+    public JWTService(SigningKeyRing keyRing, Duration accessTokenTtl){
+        this(keyRing, accessTokenTtl, PermissionDictionary.plain());
+    }
+
+    @Autowired
+    public JWTService(SigningKeyRing keyRing, @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl,
+                      PermissionDictionary permissionDictionary){
+        this.keyRing = keyRing;
+        this.accessTokenTtl = accessTokenTtl;
+        this.permissionDictionary = permissionDictionary;
+        this.jwsWriter = new CompactJwsWriter(permissionDictionary);
+        JwtParserBuilder parserBuilder = Jwts.parser();
+        if (!keyRing.getAlgorithm().isSymmetric()) {
+            // faster EdDSA / ES256 checks on a token cache miss
+            parserBuilder.provider(SigningAlgorithm.getProvider());
         }
+        this.jwtParser = parserBuilder
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = keyRing.getKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     /**
-     * generating the token
+     * generating the token, safe to call from any number of threads
      */
     public String generateToken(UserDetails userDetails) {
-        claims.put("roles",userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList()));
-
-        return Jwts.builder()
-                .claims()
-                .add(claims)
-                .subject(userDetails.getUsername())
-                .issuedAt( new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis()+60*60*30))
-                .and()
-                .signWith(generateSecretKey())
-                .compact();
+        long issuedAt = System.currentTimeMillis() / 1000;
+        return jwsWriter.write(keyRing.getActive(), userDetails, issuedAt, issuedAt + accessTokenTtl.toSeconds());
     }
 
     /**
-     * generating secret key
+     * one token per user, all with the same issue time; for service accounts that need many tokens at once
      */
-    private SecretKey generateSecretKey() {
-        System.out.println("JWT Secret Key (Base64): " + MY_SECRET_KEY);
-       // Base64.getDecoder().decode(MY_SECRET_KEY.getBytes(StandardCharsets.UTF_8));
-        byte[] bytes= Decoders.BASE64.decode(MY_SECRET_KEY);
-        return Keys.hmacShaKeyFor(bytes);
+    public List<String> generateTokens(Collection<? extends UserDetails> users) {
+        long issuedAt = System.currentTimeMillis() / 1000;
+        return jwsWriter.writeAll(keyRing.getActive(), users, issuedAt, issuedAt + accessTokenTtl.toSeconds());
     }
 
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
 
-    public String extractUserName(String token) {
+    /**
+     * parsing and verifying the token exactly once,
+     * every other method works from the returned claims
+     */
+    public VerifiedToken verify(String token) {
         Claims claims = extractAllClaims(token);
-        return claims.getSubject();
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                permissions(claims),
+                claims.getExpiration().toInstant(),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant());
+    }
+
+
+    public String extractUserName(String token) {
+        return verify(token).getSubject();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName= extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verify(token), userDetails);
+    }
+
+    public boolean validateToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+        return verifiedToken.getSubject().equals(userDetails.getUsername()) && !verifiedToken.isExpired();
     }
+
     public  boolean validateToken2(String token){
         return  !isTokenExpired(token);
     }
 
 
+    // compact perms claim when present, the roles list otherwise (older tokens, users outside the dictionary)
+    private PermissionDictionary.Permissions permissions(Claims claims) {
+        Object perms = claims.get("perms");
+        if (perms != null) {
+            // a bitmask minted under another dictionary version would decode to other permissions here
+            if (!(perms instanceof String encoded) || !permissionDictionary.isCurrentVersion(claims.get("pv"))) {
+                throw InvalidBearerTokenException.of(Reason.INVALID);
+            }
+            try {
+                return permissionDictionary.decode(encoded);
+            } catch (IllegalArgumentException e) {
+                throw InvalidBearerTokenException.of(Reason.INVALID);
+            }
+        }
+        List<?> roles = claims.get("roles", List.class);
+        return PermissionDictionary.fromRoles(roles == null ? List.of() : roles.stream().map(String::valueOf).toList());
+    }
+
     private Claims extractAllClaims(String token){
         try{
-            return Jwts.parser()
-                    .verifyWith(generateSecretKey())
-                    .build()
+            return jwtParser
                     .parseSignedClaims(token)
                     .getPayload();
-        } catch (JwtException e) {
-            throw new RuntimeException("Invalid Token...");
+        } catch (ExpiredJwtException e) {
+            throw InvalidBearerTokenException.of(Reason.EXPIRED);
+        } catch (SignatureException e) {
+            throw InvalidBearerTokenException.of(Reason.BAD_SIGNATURE);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw InvalidBearerTokenException.of(Reason.INVALID);
         }
     }
 
     public boolean isTokenExpired(String token) {
-        Claims claims = extractAllClaims(token);
-        Date expiration = claims.getExpiration();
-        return expiration.before(new Date());
+        return verify(token).isExpired();
     }
 
 
     public List<String> extractRoles(String token) {
-        Claims claims= extractAllClaims(token);
-        return claims.get("roles",List.class);
+        return verify(token).getRoles();
     }
 }
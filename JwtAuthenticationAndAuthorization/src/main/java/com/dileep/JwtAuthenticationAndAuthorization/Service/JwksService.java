@@ -0,0 +1,88 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import io.jsonwebtoken.security.Jwks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * The JWK Set of the key ring's public keys, served on /.well-known/jwks.json for services that verify
+ * our tokens themselves (see the JwtVerifier module).
+ *
+ * The document is built once per key ring change and reused, with an ETag for conditional requests.
+ * Clients may cache it for max-age: a new key is published activation-delay before it signs anything,
+ * so max-age plus the ring's refresh-interval has to stay below activation-delay.
+ */
+@Service
+public class JwksService {
+
+    private final SigningKeyRing keyRing;
+    private final Duration maxAge;
+    private volatile Document document;
+
+    @Autowired
+    public JwksService(SigningKeyRing keyRing,
+                       @Value("${jwt.jwks.max-age:2m}") Duration maxAge,
+                       @Value("${jwt.signing-keys.activation-delay:5m}") Duration activationDelay,
+                       @Value("${jwt.signing-keys.refresh-interval:1m}") Duration refreshInterval) {
+        this.keyRing = keyRing;
+        this.maxAge = maxAge;
+        // otherwise JWKS clients may see tokens of a new key before its public key
+        if (maxAge.plus(refreshInterval).compareTo(activationDelay) > 0) {
+            throw new IllegalStateException("jwt.jwks.max-age + jwt.signing-keys.refresh-interval must not exceed"
+                    + " jwt.signing-keys.activation-delay");
+        }
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public Document getDocument() {
+        Map<String, PublicKey> publicKeys = keyRing.getPublicKeys();
+        Document current = document;
+        if (current == null || current.publicKeys != publicKeys) {
+            // a race only builds the same document twice
+            current = build(publicKeys);
+            document = current;
+        }
+        return current;
+    }
+
+    private static Document build(Map<String, PublicKey> publicKeys) {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (Map.Entry<String, PublicKey> entry : publicKeys.entrySet()) {
+            if (json.charAt(json.length() - 1) != '[') {
+                json.append(',');
+            }
+            json.append(Jwks.json(Jwks.builder()
+                    .key(entry.getValue())
+                    .id(entry.getKey())
+                    .algorithm(SigningAlgorithm.of(entry.getValue()).name())
+                    .publicKeyUse("sig")
+                    .build()));
+        }
+        json.append("]}");
+        return new Document(publicKeys, json.toString(), etag(json.toString()));
+    }
+
+    private static String etag(String json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Document(Map<String, PublicKey> publicKeys, String json, String etag) {
+    }
+}
@@ -0,0 +1,244 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.ProductCache;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.Authority;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MaskAuthorizationManager;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductOperation;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResult;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResult.Status;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create / update / delete of products.
+ * Operations run in chunks, one transaction per chunk, so Hibernate sends the inserts, updates and deletes
+ * of a chunk as JDBC batches (see hibernate.jdbc.batch_size). Every item gets its own result: items the caller
+ * has no authority for, invalid items and unknown ids are reported and skipped without failing the chunk.
+ * An update followed by a delete of the same product in one chunk is reported as SUPERSEDED, only the delete applies.
+ * A version on UPDATE or DELETE makes the write conditional on it, like the single-product endpoints.
+ * A database error rolls back its chunk only, the items of that chunk are reported as FAILED.
+ */
+@Service
+public class ProductBulkService {
+
+    private static final AuthorizationManager<Object> CAN_CREATE = MaskAuthorizationManager.anyOf(Authority.PRODUCT_CREATE);
+    private static final AuthorizationManager<Object> CAN_UPDATE = MaskAuthorizationManager.anyOf(Authority.PRODUCT_UPDATE);
+    private static final AuthorizationManager<Object> CAN_DELETE = MaskAuthorizationManager.anyOf(Authority.PRODUCT_DELETE);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${product-bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${product-bulk.max-operations:10000}")
+    private int maxOperations;
+
+    public int getMaxOperations() {
+        return maxOperations;
+    }
+
+    public BulkProductResponse apply(List<BulkProductOperation> operations, Authentication authentication) {
+        boolean canCreate = CAN_CREATE.check(() -> authentication, null).isGranted();
+        boolean canUpdate = CAN_UPDATE.check(() -> authentication, null).isGranted();
+        boolean canDelete = CAN_DELETE.check(() -> authentication, null).isGranted();
+
+        BulkProductResult[] results = new BulkProductResult[operations.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            BulkProductResult rejected = precheck(i, operations.get(i), canCreate, canUpdate, canDelete);
+            if (rejected != null) {
+                results[i] = rejected;
+            } else {
+                accepted.add(i);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            applyChunk(operations, chunk, results);
+        }
+
+        int succeeded = (int) Arrays.stream(results).filter(BulkProductResult::isSuccess).count();
+        return BulkProductResponse.builder()
+                .succeeded(succeeded)
+                .failed(results.length - succeeded)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private void applyChunk(List<BulkProductOperation> operations, List<Integer> chunk, BulkProductResult[] results) {
+        List<Product> saved = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        // result indexes of the updates per id, reported as superseded when the chunk deletes the product afterwards
+        Map<Long, List<Integer>> updates = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // deletes without a version go out as one "delete ... where id in (...)"
+                List<Long> unversionedDeletes = new ArrayList<>();
+                // one select for every product the chunk updates or deletes
+                List<Long> ids = chunk.stream()
+                        .map(i -> operations.get(i))
+                        .filter(op -> op.getOp() != BulkProductOperation.Type.CREATE)
+                        .map(BulkProductOperation::getId)
+                        .distinct()
+                        .toList();
+                Map<Long, Product> existing = productRepository.findAllById(ids).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+                for (int index : chunk) {
+                    BulkProductOperation op = operations.get(index);
+                    switch (op.getOp()) {
+                        case CREATE -> {
+                            Product product = Product.builder()
+                                    .productName(op.getProductName())
+                                    .price(op.getPrice())
+                                    .quantity(op.getQuantity())
+                                    .build();
+                            entityManager.persist(product);
+                            saved.add(product);
+                            results[index] = result(index, op, product.getId(), Status.CREATED, null);
+                        }
+                        case UPDATE -> {
+                            Product product = existing.get(op.getId());
+                            if (product == null) {
+                                results[index] = result(index, op, op.getId(), Status.NOT_FOUND, "Product not found");
+                                continue;
+                            }
+                            if (op.getVersion() != null && !op.getVersion().equals(product.getVersion())) {
+                                results[index] = result(index, op, op.getId(), Status.CONFLICT, "Product was changed by someone else");
+                                continue;
+                            }
+                            // flushed as a batched, version-checked update at commit
+                            product.setProductName(op.getProductName());
+                            product.setPrice(op.getPrice());
+                            product.setQuantity(op.getQuantity());
+                            saved.add(product);
+                            updates.computeIfAbsent(op.getId(), id -> new ArrayList<>()).add(index);
+                            results[index] = result(index, op, op.getId(), Status.UPDATED, null);
+                        }
+                        case DELETE -> {
+                            Product product = existing.get(op.getId());
+                            if (product == null) {
+                                results[index] = result(index, op, op.getId(), Status.NOT_FOUND, "Product not found");
+                                continue;
+                            }
+                            if (op.getVersion() != null && !op.getVersion().equals(product.getVersion())) {
+                                results[index] = result(index, op, op.getId(), Status.CONFLICT, "Product was changed by someone else");
+                                continue;
+                            }
+                            existing.remove(op.getId());
+                            for (int updateIndex : updates.getOrDefault(op.getId(), List.of())) {
+                                results[updateIndex] = result(updateIndex, operations.get(updateIndex), op.getId(),
+                                        Status.SUPERSEDED, "Deleted by item " + index + " of the same request");
+                            }
+                            if (op.getVersion() != null) {
+                                // flushed as a batched "delete ... where id = ? and version = ?"
+                                entityManager.remove(product);
+                            } else {
+                                unversionedDeletes.add(op.getId());
+                            }
+                            deletedIds.add(op.getId());
+                            results[index] = result(index, op, op.getId(), Status.DELETED, null);
+                        }
+                    }
+                }
+                if (!deletedIds.isEmpty()) {
+                    // dropped from the update list if the same chunk also updated them
+                    Set<Long> deleted = new HashSet<>(deletedIds);
+                    saved.removeIf(product -> deleted.contains(product.getId()));
+                }
+                if (!unversionedDeletes.isEmpty()) {
+                    productRepository.deleteAllByIdInBatch(unversionedDeletes);
+                }
+            });
+        } catch (RuntimeException e) {
+            String message = failureMessage(e);
+            for (int index : chunk) {
+                BulkProductOperation op = operations.get(index);
+                results[index] = result(index, op, op.getId(), Status.FAILED, message);
+            }
+            saved.clear();
+            deletedIds.clear();
+        } finally {
+            // the request-scoped persistence context would otherwise grow with every chunk
+            entityManager.clear();
+        }
+        productCache.update(saved, deletedIds);
+    }
+
+    private static BulkProductResult precheck(int index, BulkProductOperation op,
+                                              boolean canCreate, boolean canUpdate, boolean canDelete) {
+        if (op == null || op.getOp() == null) {
+            return result(index, op, null, Status.INVALID, "op must be CREATE, UPDATE or DELETE");
+        }
+        boolean allowed = switch (op.getOp()) {
+            case CREATE -> canCreate;
+            case UPDATE -> canUpdate;
+            case DELETE -> canDelete;
+        };
+        if (!allowed) {
+            return result(index, op, op.getId(), Status.FORBIDDEN, "Missing authority for " + op.getOp());
+        }
+        if (op.getOp() != BulkProductOperation.Type.CREATE && op.getId() == null) {
+            return result(index, op, null, Status.INVALID, "id is required");
+        }
+        if (op.getOp() != BulkProductOperation.Type.DELETE && (op.getProductName() == null || op.getPrice() == null)) {
+            return result(index, op, op.getId(), Status.INVALID, "productName and price are required");
+        }
+        return null;
+    }
+
+    /**
+     * fixed message per kind of failure, the exception text (SQL, constraint and table names) never reaches the client
+     */
+    private static String failureMessage(RuntimeException e) {
+        if (e instanceof OptimisticLockingFailureException) {
+            return "Rolled back with its chunk: a product was changed by someone else";
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return "Rolled back with its chunk: a product violates a database constraint";
+        }
+        return "Rolled back with its chunk: database error";
+    }
+
+    private static BulkProductResult result(int index, BulkProductOperation op, Long id, Status status, String message) {
+        return BulkProductResult.builder()
+                .index(index)
+                .op(op == null ? null : op.getOp())
+                .id(id)
+                .status(status)
+                .message(message)
+                .build();
+    }
+}
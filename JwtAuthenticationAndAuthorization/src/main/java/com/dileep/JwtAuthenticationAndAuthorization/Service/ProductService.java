@@ -1,51 +1,155 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Service;
 
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.ProductCache;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductCursor;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductScrollResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
 import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidScrollRequestException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.ProductVersionConflictException;
 import com.dileep.JwtAuthenticationAndAuthorization.Repository.ProductRepository;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.ProductSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ProductService {
 
+    // columns with a seek query in ProductRepository
+    private static final List<String> SCROLL_SORT_COLUMNS = List.of("productName", "price", "id");
+    private static final int MAX_SCROLL_SIZE = 100;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
     // Save product
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        productCache.put(savedProduct);
+        return savedProduct;
     }
 
     // Get all products
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public Page<ProductView> getAllProducts(Pageable pageable) {
+        return productCache.getPage(pageable, () -> productRepository.findAllViews(pageable));
+    }
+
+    // Search products, every filter is optional and the given ones are combined with AND
+    @Transactional(readOnly = true)
+    public Page<ProductView> searchProducts(String namePrefix, String nameContains, Double minPrice, Double maxPrice,
+                                            boolean inStock, Pageable pageable) {
+        List<Specification<Product>> filters = new ArrayList<>();
+        if (namePrefix != null && !namePrefix.isBlank()) {
+            filters.add(ProductSpecifications.nameStartsWith(namePrefix));
+        }
+        if (nameContains != null && !nameContains.isBlank()) {
+            filters.add(ProductSpecifications.nameContains(nameContains));
+        }
+        if (minPrice != null) {
+            filters.add(ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            filters.add(ProductSpecifications.priceAtMost(maxPrice));
+        }
+        if (inStock) {
+            filters.add(ProductSpecifications.inStock());
+        }
+        return productRepository.findViews(Specification.allOf(filters), pageable);
+    }
+
+    // Scroll products with a keyset cursor, the cursor carries the sort of the first request
+    public ProductScrollResponse scrollProducts(String sortBy, Sort.Direction direction, int size, String cursor) {
+        ProductCursor after = cursor == null || cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        if (after != null) {
+            sortBy = after.getSortBy();
+            direction = after.getDirection();
+        }
+        if (!SCROLL_SORT_COLUMNS.contains(sortBy)) {
+            throw new InvalidScrollRequestException("sortBy must be one of " + SCROLL_SORT_COLUMNS);
+        }
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new InvalidScrollRequestException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+
+        // one extra row tells whether there is a next slice without counting
+        Limit limit = Limit.of(size + 1);
+        List<Product> rows = after == null
+                ? productRepository.findFirstSlice(scrollSort(sortBy, direction), limit)
+                : findSliceAfter(after, limit);
+
+        boolean hasNext = rows.size() > size;
+        List<Product> content = hasNext ? rows.subList(0, size) : rows;
+        return ProductScrollResponse.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? ProductCursor.after(content.get(size - 1), sortBy, direction).encode() : null)
+                .build();
+    }
+
+    private List<Product> findSliceAfter(ProductCursor after, Limit limit) {
+        boolean asc = after.getDirection().isAscending();
+        Long id = after.getLastId();
+        return switch (after.getSortBy()) {
+            case "productName" -> asc
+                    ? productRepository.findSliceAfterProductNameAsc(after.getLastValue(), id, limit)
+                    : productRepository.findSliceAfterProductNameDesc(after.getLastValue(), id, limit);
+            case "price" -> asc
+                    ? productRepository.findSliceAfterPriceAsc(Double.valueOf(after.getLastValue()), id, limit)
+                    : productRepository.findSliceAfterPriceDesc(Double.valueOf(after.getLastValue()), id, limit);
+            default -> asc
+                    ? productRepository.findSliceAfterIdAsc(id, limit)
+                    : productRepository.findSliceAfterIdDesc(id, limit);
+        };
+    }
+
+    // id breaks ties so the order is total and the cursor is unambiguous
+    private static Sort scrollSort(String sortBy, Sort.Direction direction) {
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals("id") ? sort : sort.and(Sort.by(direction, "id"));
     }
 
     // Get product by ID
-    public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+    public Optional<ProductView> getProductById(Long id) {
+        return productCache.getById(id, () -> productRepository.findViewById(id));
     }
 
-    // Update product
+    // Update product in one statement, guarded by the version when the caller sends one
     public Product updateProduct(Long id, Product updatedProduct) {
-        return productRepository.findById(id).map(product -> {
-            product.setProductName(updatedProduct.getProductName());
-            product.setPrice(updatedProduct.getPrice());
-            product.setQuantity(updatedProduct.getQuantity());
-            return productRepository.save(product);
-        }).orElse(null);
+        Long expectedVersion = updatedProduct.getVersion();
+        Optional<Product> saved = expectedVersion == null
+                ? productRepository.updateAndReturn(id, updatedProduct.getProductName(), updatedProduct.getPrice(), updatedProduct.getQuantity())
+                : productRepository.updateAndReturnIfVersion(id, expectedVersion, updatedProduct.getProductName(), updatedProduct.getPrice(), updatedProduct.getQuantity());
+        if (saved.isPresent()) {
+            productCache.put(saved.get());
+            return saved.get();
+        }
+        // nothing updated: only a versioned update needs the extra lookup to tell a conflict from a missing product
+        if (expectedVersion != null && productRepository.existsById(id)) {
+            throw new ProductVersionConflictException("Product " + id + " was changed by someone else, reload it and retry");
+        }
+        return null;
     }
 
     // Delete product
-    public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+    public boolean deleteProduct(Long id) {
+        int deleted = productRepository.deleteProductById(id);
+        productCache.evict(id);
+        return deleted > 0;
     }
 }
 
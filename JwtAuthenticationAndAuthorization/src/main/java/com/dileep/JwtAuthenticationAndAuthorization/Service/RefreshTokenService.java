@@ -0,0 +1,152 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.RefreshToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidRefreshTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, rotating refresh tokens.
+ *
+ * A refresh token is 32 random bytes (base64url), the table only keeps HMAC-SHA256(token) under a server key.
+ * Exchanging one costs one unique-index lookup, one HMAC and no password hashing.
+ * Every token can be exchanged once: the exchange marks it used with a conditional update and the caller issues
+ * the next token in the same family. A used token showing up again means someone else holds a copy,
+ * so the whole family is revoked and both parties have to log in again.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String DEV_PROFILE = "dev";
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final SecretKey hashKey;
+    private final Duration ttl;
+
+    public RefreshTokenService(@Value("${jwt.refresh-token.ttl:14d}") Duration ttl,
+                               @Value("${jwt.refresh-token.hash-key:}") String hashKey,
+                               Environment environment) {
+        this.ttl = ttl;
+        if (hashKey.isBlank()) {
+            // a random key is per node and per start: tokens from another node or before a restart are all "Invalid"
+            if (!environment.acceptsProfiles(Profiles.of(DEV_PROFILE))) {
+                throw new IllegalStateException("jwt.refresh-token.hash-key (JWT_REFRESH_TOKEN_HASH_KEY) must be set, "
+                        + "a random key is only used with the " + DEV_PROFILE + " profile");
+            }
+            try {
+                this.hashKey = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            this.hashKey = new SecretKeySpec(Base64.getDecoder().decode(hashKey), HMAC_ALGORITHM);
+        }
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * starts a new family, called after a password login
+     */
+    public String issue(String username) {
+        return issue(username, UUID.randomUUID());
+    }
+
+    /**
+     * the next token of an existing family, called after consume
+     */
+    public String issue(String username, UUID familyId) {
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(token))
+                .username(username)
+                .familyId(familyId)
+                .expiresAt(Instant.now().plus(ttl))
+                .build());
+        return token;
+    }
+
+    /**
+     * uses the token up and returns its record, the caller issues the next one in the same family
+     */
+    public RefreshToken consume(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is missing");
+        }
+        Instant now = Instant.now();
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        if (stored.isRevoked() || stored.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired or revoked");
+        }
+        if (stored.getUsedAt() != null || refreshTokenRepository.markUsed(stored.getId(), now) == 0) {
+            // the token was exchanged before: it has been copied, end the whole family
+            revokeFamily(stored);
+            throw new InvalidRefreshTokenException("Refresh token already used, please log in again");
+        }
+        return stored;
+    }
+
+    /**
+     * ends the family of the token, used on logout; unknown tokens are ignored
+     */
+    public void revoke(String token) {
+        if (token != null && !token.isBlank()) {
+            refreshTokenRepository.findByTokenHash(hash(token)).ifPresent(this::revokeFamily);
+        }
+    }
+
+    public void revokeFamily(RefreshToken token) {
+        refreshTokenRepository.revokeFamily(token.getFamilyId());
+    }
+
+    /**
+     * called when the password or roles of a user change, or the user is deleted
+     */
+    public void revokeAll(String username) {
+        refreshTokenRepository.revokeAllForUser(username);
+    }
+
+    // expired tokens are useless, used ones are only kept that long for reuse detection
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval:1h}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(Instant.now());
+    }
+
+    private byte[] hash(String token) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hashKey);
+            return mac.doFinal(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
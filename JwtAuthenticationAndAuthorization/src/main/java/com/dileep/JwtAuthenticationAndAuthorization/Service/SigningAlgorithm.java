@@ -0,0 +1,113 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Provider;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.EdECKey;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * JWS algorithms the key ring can sign with, the enum name is the "alg" header value.
+ *
+ * HS256 needs the shared secret to verify, so only this service can check its tokens.
+ * EdDSA (Ed25519) and ES256 (P-256) sign with a private key and publish the public key on the JWKS endpoint,
+ * any service can then verify tokens offline.
+ *
+ * HMAC runs on the JDK provider. Ed25519 and P-256 signatures run on Bouncy Castle, several times faster than the
+ * JDK 17 implementations; it is used as a provider object only, never registered, so nothing else in the JVM changes.
+ */
+public enum SigningAlgorithm {
+
+    HS256("HmacSHA256", 32),
+    EdDSA("Ed25519", 64),
+    // PLAIN-ECDSA is the raw r || s the JWS spec wants, no DER to convert
+    ES256("SHA256withPLAIN-ECDSA", 64);
+
+    private static final Provider BOUNCY_CASTLE = new BouncyCastleProvider();
+
+    private final String jcaName;
+    private final int signatureLength;
+
+    SigningAlgorithm(String jcaName, int signatureLength) {
+        this.jcaName = jcaName;
+        this.signatureLength = signatureLength;
+    }
+
+    public String getJcaName() {
+        return jcaName;
+    }
+
+    public int getSignatureLength() {
+        return signatureLength;
+    }
+
+    // base64url without padding
+    public int getEncodedSignatureLength() {
+        return (signatureLength * 4 + 2) / 3;
+    }
+
+    public boolean isSymmetric() {
+        return this == HS256;
+    }
+
+    /**
+     * provider for the asymmetric algorithms, also handed to the JJWT parser
+     */
+    public static Provider getProvider() {
+        return BOUNCY_CASTLE;
+    }
+
+    // a new, uninitialised Signature for EdDSA / ES256
+    Signature newSignature() throws GeneralSecurityException {
+        return Signature.getInstance(jcaName, BOUNCY_CASTLE);
+    }
+
+    /**
+     * the algorithm of an "alg" header value, null for anything we don't sign with (none, RS256, ...)
+     */
+    public static SigningAlgorithm forHeader(String alg) {
+        for (SigningAlgorithm algorithm : values()) {
+            if (algorithm.name().equals(alg)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the algorithm a signing or verification key belongs to, null for other keys
+     */
+    public static SigningAlgorithm of(Key key) {
+        if (key instanceof SecretKey) {
+            return HS256;
+        }
+        if (key instanceof EdECKey) {
+            return EdDSA;
+        }
+        if (key instanceof ECKey) {
+            return ES256;
+        }
+        return null;
+    }
+
+    SecretKey generateSecretKey() throws GeneralSecurityException {
+        return KeyGenerator.getInstance(jcaName).generateKey();
+    }
+
+    KeyPair generateKeyPair() throws GeneralSecurityException {
+        if (this == EdDSA) {
+            return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,308 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Signing keys for JWTService, kept in a PKCS12 keystore file so tokens survive restarts and every node
+ * that shares the file accepts the tokens of every other node.
+ *
+ * Each key is stored under its kid. Tokens are signed with the active key and carry its kid in the header,
+ * verification looks the kid up in an immutable map of ready-made keys.
+ * HS256 keys are secret key entries. EdDSA / ES256 keys are private key entries; PKCS12 wants a certificate
+ * next to a private key, so each gets a self-signed one that only carries the public key. The public keys
+ * are what the JWKS endpoint publishes.
+ *
+ * Rotation: refresh re-reads the file (picking up keys written by other nodes) and, when the newest key is older
+ * than rotation-interval or was made for another algorithm, adds a new one. A new key only starts signing after
+ * activation-delay, by then every node has loaded it and every JWKS client has seen it. A key is dropped once its
+ * successor has been active for longer than retention, which must cover the access token lifetime.
+ * Writes hold a file lock and replace the file atomically.
+ */
+@Component
+public class SigningKeyRing {
+
+    private final Path keystorePath;
+    private final char[] password;
+    private final SigningAlgorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration activationDelay;
+    private final Duration retention;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // replaced as a whole on every refresh, readers never see a half-updated ring
+    private volatile Keys keys;
+
+    @Autowired
+    public SigningKeyRing(@Value("${jwt.signing-keys.keystore:jwt-signing-keys.p12}") Path keystorePath,
+                          @Value("${jwt.signing-keys.password}") String password,
+                          @Value("${jwt.signing-keys.algorithm:HS256}") SigningAlgorithm algorithm,
+                          @Value("${jwt.signing-keys.rotation-interval:30d}") Duration rotationInterval,
+                          @Value("${jwt.signing-keys.activation-delay:5m}") Duration activationDelay,
+                          @Value("${jwt.signing-keys.retention:1d}") Duration retention) {
+        if (password.isBlank()) {
+            // the keystore holds the private signing keys, never protect it with a well-known default
+            throw new IllegalStateException("jwt.signing-keys.password (JWT_KEYSTORE_PASSWORD) must be set");
+        }
+        this.keystorePath = keystorePath.toAbsolutePath();
+        this.password = password.toCharArray();
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.activationDelay = activationDelay;
+        this.retention = retention;
+        refresh();
+    }
+
+    private SigningKeyRing(String keyId, SigningAlgorithm algorithm) {
+        this.keystorePath = null;
+        this.password = null;
+        this.algorithm = algorithm;
+        this.rotationInterval = null;
+        this.activationDelay = null;
+        this.retention = null;
+        try {
+            if (algorithm.isSymmetric()) {
+                SecretKey key = algorithm.generateSecretKey();
+                this.keys = new Keys(Map.of(keyId, key), Map.of(), new SigningKey(keyId, algorithm, key));
+            } else {
+                KeyPair keyPair = algorithm.generateKeyPair();
+                this.keys = new Keys(Map.of(keyId, keyPair.getPublic()), Map.of(keyId, keyPair.getPublic()),
+                        new SigningKey(keyId, algorithm, keyPair.getPrivate()));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * a single random HS256 key that only lives in memory, for benchmarks and tests
+     */
+    public static SigningKeyRing ephemeral() {
+        return ephemeral(SigningAlgorithm.HS256);
+    }
+
+    public static SigningKeyRing ephemeral(SigningAlgorithm algorithm) {
+        return new SigningKeyRing("ephemeral", algorithm);
+    }
+
+    /**
+     * the algorithm new keys are made for; the active key can still be of the previous one right after a switch
+     */
+    public SigningAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * kid, algorithm and key to sign with, read together so they always match
+     */
+    public SigningKey getActive() {
+        return keys.active;
+    }
+
+    /**
+     * verification key for the kid of a token header: the secret for HS256, the public key otherwise; null when unknown
+     */
+    public Key getKey(String keyId) {
+        return keyId == null ? null : keys.byId.get(keyId);
+    }
+
+    /**
+     * public keys by kid, including keys not signing yet and keys retired from signing; empty for HS256.
+     * The same map instance until the ring changes.
+     */
+    public Map<String, PublicKey> getPublicKeys() {
+        return keys.publicKeys;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.signing-keys.refresh-interval:1m}")
+    public synchronized void refresh() {
+        if (keystorePath == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(keystorePath.getParent());
+            Path lockPath = keystorePath.resolveSibling(keystorePath.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                Instant now = Instant.now();
+                KeyStore keyStore = load();
+                boolean changed = rotate(keyStore, now) | retire(keyStore, now);
+                if (changed) {
+                    store(keyStore);
+                }
+                Keys current = keys;
+                Keys loaded = snapshot(keyStore, now);
+                // keep the old instance when nothing changed, so getPublicKeys stays the same map
+                keys = current != null && current.equals(loaded) ? current : loaded;
+            }
+        } catch (IOException | GeneralSecurityException | OperatorCreationException e) {
+            if (keys == null) {
+                throw new IllegalStateException("Cannot load JWT signing keys from " + keystorePath, e);
+            }
+            // keep signing with what we have, the next refresh tries again
+        }
+    }
+
+    // adds a key when there is none yet, the newest one is due for rotation or the configured algorithm changed
+    private boolean rotate(KeyStore keyStore, Instant now) throws GeneralSecurityException, OperatorCreationException {
+        List<String> aliases = byCreationDate(keyStore);
+        if (!aliases.isEmpty()) {
+            String newest = aliases.get(aliases.size() - 1);
+            if (keyStore.getCreationDate(newest).toInstant().plus(rotationInterval).isAfter(now)
+                    && algorithmOf(keyStore, newest) == algorithm) {
+                return false;
+            }
+        }
+        String keyId = newKeyId();
+        if (algorithm.isSymmetric()) {
+            keyStore.setEntry(keyId, new KeyStore.SecretKeyEntry(algorithm.generateSecretKey()), new KeyStore.PasswordProtection(password));
+        } else {
+            KeyPair keyPair = algorithm.generateKeyPair();
+            keyStore.setKeyEntry(keyId, keyPair.getPrivate(), password, new Certificate[]{selfSigned(keyId, keyPair, now)});
+        }
+        return true;
+    }
+
+    // drops every key whose successor has been signing for longer than the retention
+    private boolean retire(KeyStore keyStore, Instant now) throws GeneralSecurityException {
+        List<String> aliases = byCreationDate(keyStore);
+        boolean changed = false;
+        for (int i = 0; i < aliases.size() - 1; i++) {
+            Instant successorActive = keyStore.getCreationDate(aliases.get(i + 1)).toInstant().plus(activationDelay);
+            if (successorActive.plus(retention).isBefore(now)) {
+                keyStore.deleteEntry(aliases.get(i));
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private Keys snapshot(KeyStore keyStore, Instant now) throws GeneralSecurityException {
+        Map<String, Key> byId = new HashMap<>();
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        SigningKey active = null;
+        for (String alias : byCreationDate(keyStore)) {
+            Key key = keyStore.getKey(alias, password);
+            Key verificationKey;
+            if (key instanceof SecretKey) {
+                verificationKey = key;
+            } else if (key instanceof PrivateKey && keyStore.getCertificate(alias) != null) {
+                PublicKey publicKey = keyStore.getCertificate(alias).getPublicKey();
+                publicKeys.put(alias, publicKey);
+                verificationKey = publicKey;
+            } else {
+                continue;
+            }
+            SigningAlgorithm keyAlgorithm = SigningAlgorithm.of(key);
+            if (keyAlgorithm == null) {
+                continue;
+            }
+            byId.put(alias, verificationKey);
+            // the newest key that every node has had time to load; on a fresh ring the only key there is
+            if (active == null || !keyStore.getCreationDate(alias).toInstant().plus(activationDelay).isAfter(now)) {
+                active = new SigningKey(alias, keyAlgorithm, key);
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No JWT signing key in " + keystorePath);
+        }
+        return new Keys(Map.copyOf(byId), Collections.unmodifiableMap(publicKeys), active);
+    }
+
+    private static SigningAlgorithm algorithmOf(KeyStore keyStore, String alias) throws GeneralSecurityException {
+        if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+            return SigningAlgorithm.HS256;
+        }
+        Certificate certificate = keyStore.getCertificate(alias);
+        return certificate == null ? null : SigningAlgorithm.of(certificate.getPublicKey());
+    }
+
+    // the certificate is only a carrier for the public key, nobody checks its validity
+    private X509Certificate selfSigned(String keyId, KeyPair keyPair, Instant now) throws GeneralSecurityException, OperatorCreationException {
+        X500Name name = new X500Name("CN=jwt-signing-key-" + keyId);
+        String signatureAlgorithm = algorithm == SigningAlgorithm.ES256 ? "SHA256withECDSA" : "Ed25519";
+        return new JcaX509CertificateConverter().getCertificate(new JcaX509v3CertificateBuilder(
+                name, new BigInteger(64, secureRandom), Date.from(now), Date.from(now.plus(3650, ChronoUnit.DAYS)),
+                name, keyPair.getPublic())
+                .build(new JcaContentSignerBuilder(signatureAlgorithm).build(keyPair.getPrivate())));
+    }
+
+    private static List<String> byCreationDate(KeyStore keyStore) throws GeneralSecurityException {
+        List<String> aliases = Collections.list(keyStore.aliases());
+        Map<String, Date> created = new HashMap<>();
+        for (String alias : aliases) {
+            created.put(alias, keyStore.getCreationDate(alias));
+        }
+        aliases.sort(Comparator.comparing(created::get));
+        return aliases;
+    }
+
+    private KeyStore load() throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        if (Files.exists(keystorePath)) {
+            try (InputStream in = Files.newInputStream(keystorePath)) {
+                keyStore.load(in, password);
+            }
+        } else {
+            keyStore.load(null, password);
+        }
+        return keyStore;
+    }
+
+    // written next to the keystore and moved over it, readers never see a partial file
+    private void store(KeyStore keyStore) throws IOException, GeneralSecurityException {
+        Path temp = Files.createTempFile(keystorePath.getParent(), keystorePath.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            keyStore.store(out, password);
+        }
+        Files.move(temp, keystorePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // lower-case hex, PKCS12 aliases are case-insensitive
+    private String newKeyId() {
+        byte[] random = new byte[8];
+        secureRandom.nextBytes(random);
+        return HexFormat.of().formatHex(random);
+    }
+
+    /**
+     * key is the SecretKey for HS256 and the PrivateKey otherwise
+     */
+    public record SigningKey(String id, SigningAlgorithm algorithm, Key key) {
+    }
+
+    private record Keys(Map<String, Key> byId, Map<String, PublicKey> publicKeys, SigningKey active) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.RevokedTokenDenylist;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.VerifiedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.RevokedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps the RevokedTokenDenylist of this instance in step with the revoked_tokens log.
+ *
+ * A revoke is written to the log and added to the local denylist right away, other instances pick it up
+ * with the next poll. The poll asks for rows revoked since the previous poll minus poll-overlap, so a row written
+ * by a slower transaction or an instance with a slightly different clock is still seen; re-adding is a no-op.
+ * Requests never touch the database for this.
+ */
+@Service
+public class TokenRevocationService {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private RevokedTokenDenylist denylist;
+
+    @Value("${jwt.revocation.poll-overlap:30s}")
+    private Duration pollOverlap;
+
+    private volatile Instant lastPoll;
+
+    // the denylist must be complete before the first request is let through
+    @PostConstruct
+    public void load() {
+        Instant now = Instant.now();
+        for (RevokedToken revoked : revokedTokenRepository.findByExpiresAtAfter(now)) {
+            denylist.add(revoked.getTokenId(), revoked.getExpiresAt());
+        }
+        lastPoll = now;
+    }
+
+    public void revoke(VerifiedToken token) {
+        if (token.getId() == null || token.isExpired()) {
+            // tokens from before jti was added, or nothing left to revoke
+            return;
+        }
+        if (!revokedTokenRepository.existsByTokenId(token.getId())) {
+            try {
+                revokedTokenRepository.save(RevokedToken.builder()
+                        .tokenId(token.getId())
+                        .username(token.getSubject())
+                        .expiresAt(token.getExpiration())
+                        .revokedAt(Instant.now())
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // revoked concurrently, the row is there either way
+            }
+        }
+        denylist.add(token.getId(), token.getExpiration());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return denylist.isRevoked(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval:5s}")
+    public void poll() {
+        Instant now = Instant.now();
+        for (RevokedToken revoked : revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(lastPoll.minus(pollOverlap), now)) {
+            denylist.add(revoked.getTokenId(), revoked.getExpiresAt());
+        }
+        lastPoll = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval:10m}")
+    public void prune() {
+        Instant now = Instant.now();
+        denylist.prune(now);
+        revokedTokenRepository.deleteExpired(now);
+    }
+}
@@ -1,15 +1,21 @@
 package com.dileep.JwtAuthenticationAndAuthorization.Service;
 
 
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.CachedUserDetailsService;
 import com.dileep.JwtAuthenticationAndAuthorization.DTO.AuthRequest;
 import com.dileep.JwtAuthenticationAndAuthorization.DTO.SignupRequest;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.TokenResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.VerifiedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.RefreshToken;
 import com.dileep.JwtAuthenticationAndAuthorization.Entity.UserInfo;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidRefreshTokenException;
 import com.dileep.JwtAuthenticationAndAuthorization.Repository.UserInfoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -24,12 +30,21 @@ public class UserInfoService {
     @Autowired
     private PasswordEncoder encoder;
 
+    @Autowired
+    private CachedUserDetailsService userDetailsService;
+
     @Autowired
     private AuthenticationManager authenticationManager;
 
     @Autowired
     private  JWTService jwtService;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     // Save user
     public String saveUser(SignupRequest request) {
         if (userInfoRepository.findByUsername(request.getUsername()).isPresent()) {
@@ -44,6 +59,7 @@ public class UserInfoService {
                             .build();
 
             userInfoRepository.save(userInfo);
+            userDetailsService.evict(userInfo.getUsername());
         }
         return request.getUsername()+ " successfully register";
     }
@@ -72,13 +88,23 @@ public class UserInfoService {
                     .email(updatedUser.getEmail())
                     .roles(updatedUser.getRoles())
                             .build();
-            return userInfoRepository.save(updatedUserInfo);
+            UserInfo saved = userInfoRepository.save(updatedUserInfo);
+            // roles or password may have changed, drop the cached copies right away
+            userDetailsService.evict(user.getUsername());
+            userDetailsService.evict(saved.getUsername());
+            // and make every session log in again
+            refreshTokenService.revokeAll(user.getUsername());
+            return saved;
         }).orElse(null);
     }
 
     // Delete user
     public void deleteUser(Long id) {
-        userInfoRepository.deleteById(id);
+        userInfoRepository.findById(id).ifPresent(user -> {
+            userInfoRepository.delete(user);
+            userDetailsService.evict(user.getUsername());
+            refreshTokenService.revokeAll(user.getUsername());
+        });
     }
 
 
@@ -89,5 +115,53 @@ public class UserInfoService {
            return jwtService.generateToken((UserDetails) authentication.getPrincipal());
         return "fail";
     }
+
+    // Password login, returns an access token and the first refresh token of a new family
+    public TokenResponse getTokens(AuthRequest authRequest) {
+        Authentication authentication= authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(authRequest.getUsername(),authRequest.getPassword()));
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return tokenResponse(userDetails, refreshTokenService.issue(userDetails.getUsername()));
+    }
+
+    // Exchange a refresh token for a new pair, no password check: one token lookup and the (cached) user
+    public TokenResponse refresh(String refreshToken) {
+        RefreshToken current = refreshTokenService.consume(refreshToken);
+        UserDetails userDetails;
+        try {
+            // current roles, not the ones from the time of the login
+            userDetails = userDetailsService.loadUserByUsername(current.getUsername());
+        } catch (UsernameNotFoundException e) {
+            refreshTokenService.revokeFamily(current);
+            throw new InvalidRefreshTokenException("User no longer exists");
+        }
+        return tokenResponse(userDetails, refreshTokenService.issue(current.getUsername(), current.getFamilyId()));
+    }
+
+    // Revoke the access token and, when given, the refresh token family; invalid or expired tokens are simply ignored
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            VerifiedToken verifiedToken = null;
+            try {
+                verifiedToken = jwtService.verify(accessToken);
+            } catch (RuntimeException e) {
+                // nothing to revoke
+            }
+            if (verifiedToken != null) {
+                tokenRevocationService.revoke(verifiedToken);
+            }
+        }
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    private TokenResponse tokenResponse(UserDetails userDetails, String refreshToken) {
+        return TokenResponse.builder()
+                .accessToken(jwtService.generateToken(userDetails))
+                .tokenType("Bearer")
+                .expiresIn(jwtService.getAccessTokenTtl().toSeconds())
+                .refreshToken(refreshToken)
+                .refreshExpiresIn(refreshTokenService.getTtl().toSeconds())
+                .build();
+    }
 }
 
@@ -0,0 +1,4 @@
+-- One-off DBA step, not run by the application: the trigram index in products-search-indexes.sql needs pg_trgm.
+-- pg_trgm is a trusted extension (PostgreSQL 13+), the database owner can create it without superuser.
+-- Restart the application (or run products-search-indexes.sql) afterwards to build idx_products_product_name_trgm.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
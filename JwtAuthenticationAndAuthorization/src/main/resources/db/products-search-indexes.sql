@@ -0,0 +1,22 @@
+-- Indexes behind GET /api/products/search (see ProductSpecifications), name filters compare lower(product_name).
+-- The application doesn't create pg_trgm: run db/pg_trgm-extension.sql once per database as its owner.
+-- Until then the fragment index is skipped and LIKE '%...%' searches scan the table.
+
+-- name fragments: lower(product_name) LIKE '%...%', only when pg_trgm is installed
+-- (a quoted DO body, the script splitter only knows ';' outside of quotes)
+DO 'BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = ''pg_trgm'') THEN
+        CREATE INDEX IF NOT EXISTS idx_products_product_name_trgm ON products USING gin (lower(product_name) gin_trgm_ops);
+    END IF;
+END';
+
+-- name prefixes: lower(product_name) LIKE '...%', text_pattern_ops works under any collation.
+-- The bound "like ? escape '\'" Hibernate sends uses it (PostgreSQL 16, 200k rows):
+--   Index Scan using idx_products_product_name_prefix on products p
+--     Index Cond: ((lower((product_name)::text) ~>=~ 'product abc'::text) AND (lower((product_name)::text) ~<~ 'product abd'::text))
+--     Filter: (lower((product_name)::text) ~~ 'product abc%'::text)
+-- That needs a custom plan, planned with the value. A generic plan can't turn $1 into a range and scans instead;
+-- with the default plan_cache_mode = auto a server-prepared statement stayed on custom plans (0 generic, 8 custom).
+CREATE INDEX IF NOT EXISTS idx_products_product_name_prefix ON products (lower(product_name) text_pattern_ops);
+
+-- price ranges use idx_products_price_id (price, id), declared on the Product entity
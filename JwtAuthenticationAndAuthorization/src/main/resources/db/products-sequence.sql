@@ -0,0 +1,3 @@
+-- Product ids come from products_seq (allocation size 50) instead of the IDENTITY column.
+-- Move the sequence past every id handed out before the switch, never backwards.
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products) + 50, (SELECT last_value FROM products_seq)));
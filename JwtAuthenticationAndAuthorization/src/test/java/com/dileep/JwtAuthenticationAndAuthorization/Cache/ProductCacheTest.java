@@ -0,0 +1,78 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Cache;
+
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCacheTest {
+
+    private final ProductCache productCache = new ProductCache(Duration.ofMinutes(10), 100, 1000, new SimpleMeterRegistry());
+
+    @Test
+    void concurrentMissesShareOneQuery() throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Optional<ProductView>> first = CompletableFuture.supplyAsync(() -> productCache.getById(1L, () -> {
+            queries.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return Optional.of(new ProductView(1L, "a", 1.0, 1, 0L));
+        }));
+        await(loading);
+        CompletableFuture<Optional<ProductView>> second = CompletableFuture.supplyAsync(() -> productCache.getById(1L, () -> {
+            queries.incrementAndGet();
+            return Optional.empty();
+        }));
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void anErrorInTheLoaderReleasesTheWaiters() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Optional<ProductView>> failing = CompletableFuture.supplyAsync(() -> productCache.getById(1L, () -> {
+            loading.countDown();
+            await(release);
+            throw new StackOverflowError();
+        }));
+        await(loading);
+        CompletableFuture<Optional<ProductView>> waiting = CompletableFuture.supplyAsync(() -> productCache.getById(1L, Optional::empty));
+        release.countDown();
+
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(StackOverflowError.class);
+        // the waiter either saw the failure or, arriving after it, loaded on its own; it never hangs
+        try {
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isEmpty();
+        } catch (ExecutionException e) {
+            assertThat(e).hasCauseInstanceOf(StackOverflowError.class);
+        }
+        // the failed load is not cached
+        assertThat(productCache.getById(1L, () -> Optional.of(new ProductView(1L, "a", 1.0, 1, 0L)))).isPresent();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenDenylistTest {
+
+    private RevokedTokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = new RevokedTokenDenylist(16, 0.01, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void revokedIdsAreDenied() {
+        denylist.add("revoked", Instant.now().plusSeconds(60));
+
+        assertThat(denylist.isRevoked("revoked")).isTrue();
+        assertThat(denylist.isRevoked("other")).isFalse();
+        assertThat(denylist.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void addIsIdempotentAndIgnoresExpiredTokens() {
+        denylist.add("revoked", Instant.now().plusSeconds(60));
+        denylist.add("revoked", Instant.now().plusSeconds(120));
+        denylist.add("expired", Instant.now().minusSeconds(1));
+
+        assertThat(denylist.size()).isEqualTo(1);
+        assertThat(denylist.isRevoked("expired")).isFalse();
+    }
+
+    @Test
+    void pruneDropsOnlyExpiredIds() {
+        Instant now = Instant.now();
+        denylist.add("short", now.plusSeconds(10));
+        denylist.add("long", now.plusSeconds(600));
+
+        assertThat(denylist.prune(now)).isZero();
+        assertThat(denylist.prune(now.plusSeconds(60))).isEqualTo(1);
+
+        assertThat(denylist.size()).isEqualTo(1);
+        assertThat(denylist.isRevoked("short")).isFalse();
+        assertThat(denylist.isRevoked("long")).isTrue();
+    }
+
+    @Test
+    void growingPastTheExpectedSizeKeepsEveryId() {
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        List<String> ids = new ArrayList<>();
+        // the filter is sized for at least 1024 ids and rebuilt larger after that
+        for (int i = 0; i < 3000; i++) {
+            String id = UUID.randomUUID().toString();
+            ids.add(id);
+            denylist.add(id, expiresAt);
+        }
+
+        assertThat(denylist.size()).isEqualTo(3000);
+        assertThat(ids).allMatch(denylist::isRevoked);
+        assertThat(denylist.isRevoked(UUID.randomUUID().toString())).isFalse();
+    }
+}
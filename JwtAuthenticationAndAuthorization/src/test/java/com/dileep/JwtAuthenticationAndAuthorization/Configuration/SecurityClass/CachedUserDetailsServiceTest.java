@@ -0,0 +1,143 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.UserInfo;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.UserInfoRepository;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.RefreshTokenService;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.UserInfoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachedUserDetailsServiceTest {
+
+    private UserInfoRepository userInfoRepository;
+    private CachedUserDetailsService cachedUserDetailsService;
+    private UserInfoService userInfoService;
+
+    @BeforeEach
+    void setUp() {
+        userInfoRepository = mock(UserInfoRepository.class);
+        MyUserDetailsService myUserDetailsService = new MyUserDetailsService();
+        ReflectionTestUtils.setField(myUserDetailsService, "userInfoRepository", userInfoRepository);
+        cachedUserDetailsService = new CachedUserDetailsService(myUserDetailsService, Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+
+        userInfoService = new UserInfoService();
+        ReflectionTestUtils.setField(userInfoService, "userInfoRepository", userInfoRepository);
+        ReflectionTestUtils.setField(userInfoService, "userDetailsService", cachedUserDetailsService);
+        ReflectionTestUtils.setField(userInfoService, "refreshTokenService", mock(RefreshTokenService.class));
+    }
+
+    @Test
+    void servesRepeatLookupsFromTheCache() {
+        when(userInfoRepository.findByUsername("alice")).thenReturn(Optional.of(user("PRODUCT_VIEW")));
+
+        UserDetails first = cachedUserDetailsService.loadUserByUsername("alice");
+        UserDetails second = cachedUserDetailsService.loadUserByUsername("alice");
+
+        assertThat(second).isSameAs(first);
+        verify(userInfoRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void updateUserDropsTheCachedRoles() {
+        UserInfo before = user("PRODUCT_VIEW");
+        UserInfo after = user("PRODUCT_VIEW,PRODUCT_DELETE");
+        when(userInfoRepository.findByUsername("alice")).thenReturn(Optional.of(before));
+        assertThat(authorities(cachedUserDetailsService.loadUserByUsername("alice"))).containsExactly("PRODUCT_VIEW");
+
+        when(userInfoRepository.findByUsername("alice")).thenReturn(Optional.of(after));
+        when(userInfoRepository.findById(1L)).thenReturn(Optional.of(before));
+        when(userInfoRepository.save(any(UserInfo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // still the cached copy until the update goes through UserInfoService
+        assertThat(authorities(cachedUserDetailsService.loadUserByUsername("alice"))).containsExactly("PRODUCT_VIEW");
+
+        userInfoService.updateUser(1L, after);
+
+        assertThat(authorities(cachedUserDetailsService.loadUserByUsername("alice")))
+                .containsExactly("PRODUCT_VIEW", "PRODUCT_DELETE");
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userInfoRepository.findByUsername("alice")).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user("PRODUCT_VIEW"));
+        });
+
+        CompletableFuture<UserDetails> first = CompletableFuture.supplyAsync(() -> cachedUserDetailsService.loadUserByUsername("alice"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<UserDetails> second = CompletableFuture.supplyAsync(() -> cachedUserDetailsService.loadUserByUsername("alice"));
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        verify(userInfoRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void evictDropsALoadStillInFlight() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userInfoRepository.findByUsername("alice"))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return Optional.of(user("PRODUCT_VIEW"));
+                })
+                .thenReturn(Optional.of(user("PRODUCT_VIEW,PRODUCT_DELETE")));
+
+        CompletableFuture<UserDetails> stale = CompletableFuture.supplyAsync(() -> cachedUserDetailsService.loadUserByUsername("alice"));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // the roles change while the old row is still being loaded
+        cachedUserDetailsService.evict("alice");
+        release.countDown();
+        assertThat(authorities(stale.get(5, TimeUnit.SECONDS))).containsExactly("PRODUCT_VIEW");
+
+        assertThat(authorities(cachedUserDetailsService.loadUserByUsername("alice")))
+                .containsExactly("PRODUCT_VIEW", "PRODUCT_DELETE");
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        when(userInfoRepository.findByUsername("bob")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> cachedUserDetailsService.loadUserByUsername("bob")).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> cachedUserDetailsService.loadUserByUsername("bob")).isInstanceOf(UsernameNotFoundException.class);
+
+        verify(userInfoRepository, times(2)).findByUsername("bob");
+    }
+
+    private static UserInfo user(String roles) {
+        return UserInfo.builder()
+                .id(1L)
+                .username("alice")
+                .password("{noop}secret")
+                .email("alice@example.com")
+                .roles(roles)
+                .build();
+    }
+
+    private static String[] authorities(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toArray(String[]::new);
+    }
+}
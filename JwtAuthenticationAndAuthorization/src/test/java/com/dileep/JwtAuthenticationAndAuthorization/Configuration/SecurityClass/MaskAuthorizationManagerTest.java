@@ -0,0 +1,94 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MaskAuthorizationManagerTest {
+
+    @Test
+    void grantsWhenThePrincipalHasOneOfTheAuthorities() {
+        Authentication viewer = authenticated("PRODUCT_VIEW");
+
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW), viewer)).isTrue();
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW, Authority.ROLE_CUSTOMER_SERVICE), viewer)).isTrue();
+    }
+
+    @Test
+    void deniesWhenThePrincipalHasNoneOfTheAuthorities() {
+        Authentication viewer = authenticated("PRODUCT_VIEW");
+
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_DELETE), viewer)).isFalse();
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_CREATE, Authority.PRODUCT_UPDATE), viewer)).isFalse();
+    }
+
+    @Test
+    void deniesUnauthenticatedAndMissingAuthentications() {
+        MyUserDetails user = new MyUserDetails("alice", "", List.of("PRODUCT_VIEW"));
+        Authentication unauthenticated = UsernamePasswordAuthenticationToken.unauthenticated(user, null);
+
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW), unauthenticated)).isFalse();
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW), null)).isFalse();
+    }
+
+    @Test
+    void computesTheMaskForOtherPrincipals() {
+        Authentication token = new TestingAuthenticationToken("alice", null, "PRODUCT_UPDATE");
+
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_UPDATE), token)).isTrue();
+        assertThat(isGranted(MaskAuthorizationManager.anyOf(Authority.PRODUCT_VIEW), token)).isFalse();
+    }
+
+    @Test
+    void unknownAuthoritiesHaveNoBitButAreStillHeld() {
+        // free-text signup roles get no bit, no rule can name one but hasAuthority still finds it
+        Authentication user = authenticated("SOMETHING_MADE_UP");
+        MyUserDetails principal = (MyUserDetails) user.getPrincipal();
+
+        assertThat(principal.getAuthorityMask()).isZero();
+        assertThat(principal.hasAuthority("SOMETHING_MADE_UP")).isTrue();
+        assertThat(principal.hasAuthority("SOMETHING_ELSE")).isFalse();
+        assertThat(principal.hasAuthority("PRODUCT_VIEW")).isFalse();
+    }
+
+    @Test
+    void everyAuthorityHasItsOwnBit() {
+        long seen = 0L;
+        for (Authority authority : Authority.values()) {
+            long bit = AuthorityRegistry.bit(authority.name());
+            assertThat(bit).isNotZero().isEqualTo(AuthorityRegistry.bit(authority));
+            assertThat(seen & bit).isZero();
+            seen |= bit;
+        }
+        assertThat(AuthorityRegistry.bit("NOT_A_RULE_AUTHORITY")).isZero();
+        assertThat(AuthorityRegistry.intern("NOT_A_RULE_AUTHORITY")).isNotSameAs(AuthorityRegistry.intern("NOT_A_RULE_AUTHORITY"));
+        assertThat(AuthorityRegistry.intern("PRODUCT_VIEW")).isSameAs(AuthorityRegistry.intern("PRODUCT_VIEW"));
+    }
+
+    @Test
+    void aRuleMustNameAnAuthority() {
+        assertThatThrownBy(() -> MaskAuthorizationManager.anyOf()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dictionaryNamesMustBeAuthorities() {
+        assertThatThrownBy(() -> new PermissionDictionary(1, List.of("PRODUCT_VIEW", "PRODUCT_VEIW"), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("PRODUCT_VEIW");
+    }
+
+    private static Authentication authenticated(String... roles) {
+        MyUserDetails user = new MyUserDetails("alice", "", List.of(roles));
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+
+    private static boolean isGranted(MaskAuthorizationManager<Object> manager, Authentication authentication) {
+        return manager.check(() -> authentication, null).isGranted();
+    }
+}
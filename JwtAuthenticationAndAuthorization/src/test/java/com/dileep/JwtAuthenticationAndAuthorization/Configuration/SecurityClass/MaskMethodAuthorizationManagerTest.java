@@ -0,0 +1,80 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MaskMethodAuthorizationManagerTest {
+
+    @Test
+    void compilesEveryRuleAtStartup() throws NoSuchMethodException {
+        MaskMethodAuthorizationManager manager = manager(Rules.class);
+
+        manager.afterSingletonsInstantiated();
+
+        assertThat(manager.size()).isEqualTo(2);
+        Authentication viewer = authenticated("PRODUCT_VIEW");
+        assertThat(manager.check(() -> viewer, invocation(Rules.class.getMethod("view"))).isGranted()).isTrue();
+        assertThat(manager.check(() -> viewer, invocation(Rules.class.getMethod("delete"))).isGranted()).isFalse();
+        // served from the compiled rules, nothing new is added
+        assertThat(manager.size()).isEqualTo(2);
+    }
+
+    @Test
+    void anEmptyRuleFailsTheStartup() {
+        MaskMethodAuthorizationManager manager = manager(EmptyRule.class);
+
+        assertThatThrownBy(manager::afterSingletonsInstantiated)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("nothing");
+    }
+
+    private static MaskMethodAuthorizationManager manager(Class<?> beanType) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("rules", new RootBeanDefinition(beanType));
+        return new MaskMethodAuthorizationManager(beanFactory);
+    }
+
+    private static MethodInvocation invocation(Method method) {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        when(invocation.getMethod()).thenReturn(method);
+        return invocation;
+    }
+
+    private static Authentication authenticated(String... roles) {
+        MyUserDetails user = new MyUserDetails("alice", "", List.of(roles));
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+
+    static class Rules {
+
+        @RequiresAuthority(Authority.PRODUCT_VIEW)
+        public void view() {
+        }
+
+        @RequiresAuthority({Authority.PRODUCT_DELETE, Authority.ROLE_CUSTOMER_SERVICE})
+        public void delete() {
+        }
+
+        public void open() {
+        }
+    }
+
+    static class EmptyRule {
+
+        @RequiresAuthority({})
+        public void nothing() {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Filters;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException.Reason;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.JWTService;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningAlgorithm;
+import com.dileep.JwtAuthenticationAndAuthorization.Service.SigningKeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BearerTokenPrecheckTest {
+
+    private SigningKeyRing keyRing;
+    private BearerTokenPrecheck precheck;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = SigningKeyRing.ephemeral(SigningAlgorithm.HS256);
+        precheck = new BearerTokenPrecheck();
+        ReflectionTestUtils.setField(precheck, "keyRing", keyRing);
+        ReflectionTestUtils.setField(precheck, "maxLength", 4096);
+    }
+
+    @Test
+    void acceptsATokenWeIssued() {
+        String token = new JWTService(keyRing, Duration.ofMinutes(15))
+                .generateToken(new MyUserDetails("alice", "", List.of("PRODUCT_VIEW")));
+
+        assertThatNoException().isThrownBy(() -> {
+            precheck.checkStructure(token);
+            precheck.checkHeaderAndExpiry(token);
+        });
+    }
+
+    @Test
+    void rejectsMalformedStructure() {
+        for (String token : List.of("", "abc", "a.b", "a..c", ".b.c", "a.b.", "a.b.c.d", "a.b.c=", "a.b+.c", "a b.c.d")) {
+            assertThat(reason(() -> precheck.checkStructure(token))).as(token).isEqualTo(Reason.MALFORMED);
+        }
+        assertThat(reason(() -> precheck.checkStructure("a.b." + "c".repeat(4096)))).isEqualTo(Reason.MALFORMED);
+    }
+
+    @Test
+    void rejectsAlgorithmsWeDoNotSignWith() {
+        String token = token("{\"alg\":\"none\",\"kid\":\"ephemeral\"}", futureExpiry(), 43);
+
+        assertThat(reason(() -> precheck.checkHeaderAndExpiry(token))).isEqualTo(Reason.UNSUPPORTED_ALGORITHM);
+    }
+
+    @Test
+    void rejectsAlgorithmsThatDoNotMatchTheKey() {
+        // the kid names an HS256 secret, an EdDSA token must not be checked against it
+        String token = token("{\"alg\":\"EdDSA\",\"kid\":\"ephemeral\"}", futureExpiry(),
+                SigningAlgorithm.EdDSA.getEncodedSignatureLength());
+
+        assertThat(reason(() -> precheck.checkHeaderAndExpiry(token))).isEqualTo(Reason.UNSUPPORTED_ALGORITHM);
+    }
+
+    @Test
+    void rejectsUnknownKeys() {
+        String token = token("{\"alg\":\"HS256\",\"kid\":\"retired-long-ago\"}", futureExpiry(),
+                SigningAlgorithm.HS256.getEncodedSignatureLength());
+
+        assertThat(reason(() -> precheck.checkHeaderAndExpiry(token))).isEqualTo(Reason.UNKNOWN_KEY);
+    }
+
+    @Test
+    void rejectsSignaturesOfTheWrongLength() {
+        String token = token("{\"alg\":\"HS256\",\"kid\":\"ephemeral\"}", futureExpiry(), 10);
+
+        assertThat(reason(() -> precheck.checkHeaderAndExpiry(token))).isEqualTo(Reason.MALFORMED);
+    }
+
+    @Test
+    void rejectsExpiredTokensBeforeVerifying() {
+        long expired = System.currentTimeMillis() / 1000 - 60;
+        String token = token("{\"alg\":\"HS256\",\"kid\":\"ephemeral\"}", "{\"sub\":\"alice\",\"exp\":" + expired + "}",
+                SigningAlgorithm.HS256.getEncodedSignatureLength());
+
+        assertThat(reason(() -> precheck.checkHeaderAndExpiry(token))).isEqualTo(Reason.EXPIRED);
+    }
+
+    @Test
+    void rejectsTokensWithoutExpiry() {
+        String token = token("{\"alg\":\"HS256\",\"kid\":\"ephemeral\"}", "{\"sub\":\"alice\"}",
+                SigningAlgorithm.HS256.getEncodedSignatureLength());
+
+        assertThat(reason(() -> precheck.checkHeaderAndExpiry(token))).isEqualTo(Reason.MALFORMED);
+    }
+
+    private static Reason reason(Executable check) {
+        return assertThrows(InvalidBearerTokenException.class, check).getReason();
+    }
+
+    private static String futureExpiry() {
+        return "{\"sub\":\"alice\",\"exp\":" + (System.currentTimeMillis() / 1000 + 600) + "}";
+    }
+
+    private static String token(String header, String payload, int signatureLength) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + "A".repeat(signatureLength);
+    }
+}
@@ -0,0 +1,121 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.AuthorityRegistry;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.PermissionDictionary;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.VerifiedToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidBearerTokenException.Reason;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JWTServiceTest {
+
+    private static final List<String> DICTIONARY = List.of("PRODUCT_VIEW", "PRODUCT_CREATE", "PRODUCT_UPDATE", "PRODUCT_DELETE");
+
+    private final SigningKeyRing keyRing = SigningKeyRing.ephemeral();
+    private final JWTService jwtService = new JWTService(keyRing, Duration.ofMinutes(15));
+
+    @Test
+    void verifiesOnceAndExposesEveryClaim() {
+        String token = jwtService.generateToken(user("PRODUCT_VIEW", "PRODUCT_UPDATE"));
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertThat(verified.getSubject()).isEqualTo("alice");
+        assertThat(verified.getRoles()).containsExactly("PRODUCT_VIEW", "PRODUCT_UPDATE");
+        assertThat(verified.getPermissions().authorityMask())
+                .isEqualTo(AuthorityRegistry.bit("PRODUCT_VIEW") | AuthorityRegistry.bit("PRODUCT_UPDATE"));
+        assertThat(verified.getId()).isNotBlank();
+        assertThat(verified.isExpired()).isFalse();
+        assertThat(verified.getExpiration()).isAfter(Instant.now().plus(Duration.ofMinutes(14)));
+        assertThat(jwtService.validateToken(verified, user("PRODUCT_VIEW"))).isTrue();
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        String token = new JWTService(keyRing, Duration.ofMinutes(-1)).generateToken(user("PRODUCT_VIEW"));
+
+        assertThat(reason(() -> jwtService.verify(token))).isEqualTo(Reason.EXPIRED);
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        // same kid, different secret
+        String token = new JWTService(SigningKeyRing.ephemeral(), Duration.ofMinutes(15)).generateToken(user("PRODUCT_VIEW"));
+
+        assertThat(reason(() -> jwtService.verify(token))).isEqualTo(Reason.BAD_SIGNATURE);
+    }
+
+    @Test
+    void rejectsTamperedClaims() {
+        String token = jwtService.generateToken(user("PRODUCT_VIEW"));
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("PRODUCT_VIEW", "PRODUCT_DELETE");
+        String tampered = parts[0] + "." + encode(payload) + "." + parts[2];
+
+        assertThat(reason(() -> jwtService.verify(tampered))).isEqualTo(Reason.BAD_SIGNATURE);
+    }
+
+    @Test
+    void rejectsUnknownKeyIds() {
+        String token = jwtService.generateToken(user("PRODUCT_VIEW"));
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8)
+                .replace("\"ephemeral\"", "\"retired\"");
+        String otherKid = encode(header) + token.substring(token.indexOf('.'));
+
+        assertThat(reason(() -> jwtService.verify(otherKid))).isEqualTo(Reason.INVALID);
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThat(reason(() -> jwtService.verify("not.a.token"))).isEqualTo(Reason.INVALID);
+    }
+
+    @Test
+    void decodesTheCompactPermissionsClaim() {
+        JWTService compact = new JWTService(keyRing, Duration.ofMinutes(15), new PermissionDictionary(1, DICTIONARY, true));
+        String token = compact.generateToken(user("PRODUCT_VIEW", "PRODUCT_DELETE"));
+
+        assertThat(payload(token)).contains("\"perms\"").doesNotContain("\"roles\"");
+        assertThat(compact.verify(token).getRoles()).containsExactly("PRODUCT_VIEW", "PRODUCT_DELETE");
+        // nodes without the compact claim switched on still read it
+        assertThat(new JWTService(keyRing, Duration.ofMinutes(15), new PermissionDictionary(1, DICTIONARY, false))
+                .verify(token).getRoles()).containsExactly("PRODUCT_VIEW", "PRODUCT_DELETE");
+    }
+
+    @Test
+    void rejectsCompactClaimsOfAnotherDictionaryVersion() {
+        String token = new JWTService(keyRing, Duration.ofMinutes(15), new PermissionDictionary(1, DICTIONARY, true))
+                .generateToken(user("PRODUCT_VIEW"));
+        JWTService newer = new JWTService(keyRing, Duration.ofMinutes(15), new PermissionDictionary(2, DICTIONARY, true));
+
+        assertThat(reason(() -> newer.verify(token))).isEqualTo(Reason.INVALID);
+    }
+
+    private static MyUserDetails user(String... roles) {
+        return new MyUserDetails("alice", "", List.of(roles));
+    }
+
+    private static Reason reason(Executable verify) {
+        return assertThrows(InvalidBearerTokenException.class, verify).getReason();
+    }
+
+    private static String payload(String token) {
+        return new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.ProductCache;
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductOperation;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResult;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.BulkProductResult.Status;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class ProductBulkServiceTest {
+
+    private TransactionTemplate transactionTemplate;
+    private ProductBulkService productBulkService;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = mock(TransactionTemplate.class);
+        productBulkService = new ProductBulkService();
+        ReflectionTestUtils.setField(productBulkService, "productRepository", mock(ProductRepository.class));
+        ReflectionTestUtils.setField(productBulkService, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(productBulkService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(productBulkService, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(productBulkService, "chunkSize", 500);
+    }
+
+    @Test
+    void aRolledBackChunkReportsAFixedMessage() {
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"products_pkey\""))
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        BulkProductResponse response = productBulkService.apply(List.of(create("a"), create("b")), authenticated("PRODUCT_CREATE"));
+
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(BulkProductResult::getStatus).containsOnly(Status.FAILED);
+        assertThat(response.getResults()).extracting(BulkProductResult::getMessage)
+                .containsOnly("Rolled back with its chunk: a product violates a database constraint");
+    }
+
+    @Test
+    void aLostVersionRaceIsReportedWithoutTheExceptionText() {
+        doThrow(new ObjectOptimisticLockingFailureException("Product", 7L))
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        BulkProductResponse response = productBulkService.apply(List.of(create("a")), authenticated("PRODUCT_CREATE"));
+
+        assertThat(response.getResults().get(0).getMessage())
+                .isEqualTo("Rolled back with its chunk: a product was changed by someone else");
+    }
+
+    @Test
+    void anyOtherErrorIsADatabaseError() {
+        doThrow(new IllegalStateException("connection to db-internal-7:5432 refused"))
+                .when(transactionTemplate).executeWithoutResult(any());
+
+        BulkProductResponse response = productBulkService.apply(List.of(create("a")), authenticated("PRODUCT_CREATE"));
+
+        assertThat(response.getResults().get(0).getMessage()).isEqualTo("Rolled back with its chunk: database error");
+    }
+
+    private static BulkProductOperation create(String name) {
+        return BulkProductOperation.builder().op(BulkProductOperation.Type.CREATE).productName(name).price(1.0).quantity(1).build();
+    }
+
+    private static Authentication authenticated(String... roles) {
+        MyUserDetails user = new MyUserDetails("alice", "", List.of(roles));
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+}
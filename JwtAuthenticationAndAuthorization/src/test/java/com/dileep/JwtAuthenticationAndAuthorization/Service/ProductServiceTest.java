@@ -0,0 +1,137 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Cache.ProductCache;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductCursor;
+import com.dileep.JwtAuthenticationAndAuthorization.DTO.ProductScrollResponse;
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.Product;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidScrollRequestException;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.ProductVersionConflictException;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private ProductRepository productRepository;
+    private ProductCache productCache;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productCache = mock(ProductCache.class);
+        productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productService, "productCache", productCache);
+    }
+
+    @Test
+    void scrollsWithAKeysetCursor() {
+        Product a = product(1L, "a");
+        Product b = product(2L, "b");
+        Product c = product(3L, "c");
+        Sort byName = Sort.by(Sort.Direction.ASC, "productName").and(Sort.by(Sort.Direction.ASC, "id"));
+        when(productRepository.findFirstSlice(eq(byName), argThat(limit -> limit.max() == 3))).thenReturn(List.of(a, b, c));
+
+        ProductScrollResponse first = productService.scrollProducts("productName", Sort.Direction.ASC, 2, null);
+
+        assertThat(first.getContent()).containsExactly(a, b);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(first.getNextCursor()).isNotNull();
+
+        when(productRepository.findSliceAfterProductNameAsc(eq("b"), eq(2L), argThat(limit -> limit.max() == 3))).thenReturn(List.of(c));
+
+        // the cursor carries the sort, the parameters of the follow-up request don't matter
+        ProductScrollResponse second = productService.scrollProducts("price", Sort.Direction.DESC, 2, first.getNextCursor());
+
+        assertThat(second.getContent()).containsExactly(c);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorRoundTripsValuesContainingTheSeparator() {
+        ProductCursor cursor = ProductCursor.after(product(7L, "a|b|c"), "productName", Sort.Direction.DESC);
+
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getLastValue()).isEqualTo("a|b|c");
+        assertThat(ProductCursor.decode(ProductCursor.after(product(7L, "x"), "id", Sort.Direction.ASC).encode()).getLastValue()).isNull();
+    }
+
+    @Test
+    void rejectsBadScrollRequests() {
+        assertThatThrownBy(() -> productService.scrollProducts("quantity", Sort.Direction.ASC, 10, null))
+                .isInstanceOf(InvalidScrollRequestException.class);
+        assertThatThrownBy(() -> productService.scrollProducts("id", Sort.Direction.ASC, 0, null))
+                .isInstanceOf(InvalidScrollRequestException.class);
+        assertThatThrownBy(() -> productService.scrollProducts("id", Sort.Direction.ASC, 101, null))
+                .isInstanceOf(InvalidScrollRequestException.class);
+        assertThatThrownBy(() -> productService.scrollProducts("id", Sort.Direction.ASC, 10, "not a cursor!"))
+                .isInstanceOf(InvalidScrollRequestException.class);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void staleVersionIsAConflict() {
+        when(productRepository.updateAndReturnIfVersion(1L, 3L, "a", 9.5, 4)).thenReturn(Optional.empty());
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> productService.updateProduct(1L, update(3L)))
+                .isInstanceOf(ProductVersionConflictException.class);
+        verify(productCache, never()).put(any());
+    }
+
+    @Test
+    void missingProductIsNotAConflict() {
+        when(productRepository.updateAndReturnIfVersion(1L, 3L, "a", 9.5, 4)).thenReturn(Optional.empty());
+        when(productRepository.existsById(1L)).thenReturn(false);
+
+        assertThat(productService.updateProduct(1L, update(3L))).isNull();
+        verify(productCache, never()).put(any());
+    }
+
+    @Test
+    void currentVersionUpdatesAndCaches() {
+        Product saved = Product.builder().id(1L).productName("a").price(9.5).quantity(4).version(4L).build();
+        when(productRepository.updateAndReturnIfVersion(1L, 3L, "a", 9.5, 4)).thenReturn(Optional.of(saved));
+
+        assertThat(productService.updateProduct(1L, update(3L))).isSameAs(saved);
+        verify(productCache).put(saved);
+        verify(productRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void unversionedUpdateNeverConflicts() {
+        when(productRepository.updateAndReturn(1L, "a", 9.5, 4)).thenReturn(Optional.empty());
+
+        assertThat(productService.updateProduct(1L, update(null))).isNull();
+        verify(productRepository, never()).existsById(anyLong());
+    }
+
+    private static Product product(Long id, String name) {
+        return Product.builder().id(id).productName(name).price(1.0).quantity(1).version(0L).build();
+    }
+
+    private static Product update(Long version) {
+        return Product.builder().productName("a").price(9.5).quantity(4).version(version).build();
+    }
+}
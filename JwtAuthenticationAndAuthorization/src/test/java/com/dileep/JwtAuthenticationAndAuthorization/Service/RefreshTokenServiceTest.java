@@ -0,0 +1,140 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Entity.RefreshToken;
+import com.dileep.JwtAuthenticationAndAuthorization.Exception.InvalidRefreshTokenException;
+import com.dileep.JwtAuthenticationAndAuthorization.Repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private static final String HASH_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        refreshTokenService = service(HASH_KEY, new MockEnvironment());
+    }
+
+    @Test
+    void storesOnlyTheHashOfIssuedTokens() {
+        String token = refreshTokenService.issue("alice");
+
+        RefreshToken saved = saved();
+        assertThat(saved.getUsername()).isEqualTo("alice");
+        assertThat(saved.getFamilyId()).isNotNull();
+        assertThat(saved.getTokenHash()).hasSize(32).isNotEqualTo(Base64.getUrlDecoder().decode(token));
+        assertThat(saved.getExpiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void consumesAnUnusedTokenOnce() {
+        String token = refreshTokenService.issue("alice");
+        RefreshToken stored = stored();
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+
+        assertThat(refreshTokenService.consume(token)).isSameAs(stored);
+        verify(refreshTokenRepository, never()).revokeFamily(any());
+    }
+
+    @Test
+    void reuseOfAUsedTokenRevokesTheFamily() {
+        String token = refreshTokenService.issue("alice");
+        RefreshToken stored = stored();
+        stored.setUsedAt(Instant.now().minusSeconds(10));
+
+        assertThatThrownBy(() -> refreshTokenService.consume(token)).isInstanceOf(InvalidRefreshTokenException.class);
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void losingTheRaceToMarkItUsedRevokesTheFamily() {
+        String token = refreshTokenService.issue("alice");
+        RefreshToken stored = stored();
+        // a concurrent refresh with the same token got there first
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> refreshTokenService.consume(token)).isInstanceOf(InvalidRefreshTokenException.class);
+
+        verify(refreshTokenRepository).revokeFamily(stored.getFamilyId());
+    }
+
+    @Test
+    void rejectsUnknownExpiredAndRevokedTokens() {
+        when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+        assertThatThrownBy(() -> refreshTokenService.consume("unknown")).isInstanceOf(InvalidRefreshTokenException.class);
+        assertThatThrownBy(() -> refreshTokenService.consume(" ")).isInstanceOf(InvalidRefreshTokenException.class);
+
+        String token = refreshTokenService.issue("alice");
+        RefreshToken stored = stored();
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+        assertThatThrownBy(() -> refreshTokenService.consume(token)).isInstanceOf(InvalidRefreshTokenException.class);
+
+        stored.setExpiresAt(Instant.now().plusSeconds(60));
+        stored.setRevoked(true);
+        assertThatThrownBy(() -> refreshTokenService.consume(token)).isInstanceOf(InvalidRefreshTokenException.class);
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+    }
+
+    @Test
+    void tokensSurviveARestartWithTheSameKey() {
+        String token = refreshTokenService.issue("alice");
+        RefreshToken stored = stored();
+        when(refreshTokenRepository.markUsed(eq(1L), any())).thenReturn(1);
+
+        RefreshTokenService restarted = service(HASH_KEY, new MockEnvironment());
+
+        assertThat(restarted.consume(token)).isSameAs(stored);
+    }
+
+    @Test
+    void aRandomHashKeyNeedsTheDevProfile() {
+        assertThatThrownBy(() -> service("", new MockEnvironment())).isInstanceOf(IllegalStateException.class);
+
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles("dev");
+        assertThat(service("", dev).issue("alice")).isNotBlank();
+    }
+
+    private RefreshTokenService service(String hashKey, MockEnvironment environment) {
+        RefreshTokenService service = new RefreshTokenService(Duration.ofDays(14), hashKey, environment);
+        ReflectionTestUtils.setField(service, "refreshTokenRepository", refreshTokenRepository);
+        return service;
+    }
+
+    private RefreshToken saved() {
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        return captor.getValue();
+    }
+
+    // the saved record as the repository would return it for the token's hash
+    private RefreshToken stored() {
+        RefreshToken stored = saved();
+        stored.setId(1L);
+        when(refreshTokenRepository.findByTokenHash(stored.getTokenHash())).thenReturn(Optional.of(stored));
+        return stored;
+    }
+}
@@ -0,0 +1,99 @@
+package com.dileep.JwtAuthenticationAndAuthorization.Service;
+
+import com.dileep.JwtAuthenticationAndAuthorization.Configuration.SecurityClass.MyUserDetails;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyRingTest {
+
+    private static final String PASSWORD = "test-password";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void looksKeysUpByKid() {
+        SigningKeyRing ring = ring(Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1));
+        String activeId = ring.getActive().id();
+
+        assertThat(ring.getKey(activeId)).isNotNull();
+        assertThat(ring.getKey("unknown")).isNull();
+        assertThat(ring.getKey(null)).isNull();
+        assertThat(ring.getActive().algorithm()).isEqualTo(SigningAlgorithm.HS256);
+    }
+
+    @Test
+    void keepsTheKeysAcrossRestarts() {
+        String activeId = ring(Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1)).getActive().id();
+
+        SigningKeyRing restarted = ring(Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1));
+
+        assertThat(restarted.getActive().id()).isEqualTo(activeId);
+    }
+
+    @Test
+    void rotationKeepsTheOldKeyForVerification() throws InterruptedException {
+        SigningKeyRing first = ring(Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1));
+        String oldId = first.getActive().id();
+        JWTService jwtService = new JWTService(first, Duration.ofMinutes(15));
+        String oldToken = jwtService.generateToken(new MyUserDetails("alice", "", List.of("PRODUCT_VIEW")));
+        Thread.sleep(5);
+
+        // another node sharing the file, due for rotation right away; a key added by a refresh signs from the next one
+        ring(Duration.ZERO, Duration.ZERO, Duration.ofDays(1));
+        Thread.sleep(5);
+        first.refresh();
+        String newId = first.getActive().id();
+
+        assertThat(newId).isNotEqualTo(oldId);
+        assertThat(first.getKey(oldId)).isNotNull();
+        assertThat(jwtService.verify(oldToken).getSubject()).isEqualTo("alice");
+
+        String newToken = jwtService.generateToken(new MyUserDetails("bob", "", List.of("PRODUCT_VIEW")));
+        SigningKeyRing otherNode = ring(Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1));
+        assertThat(new JWTService(otherNode, Duration.ofMinutes(15)).verify(newToken).getSubject()).isEqualTo("bob");
+    }
+
+    @Test
+    void newKeysOnlySignAfterTheActivationDelay() throws InterruptedException {
+        String oldId = ring(Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1)).getActive().id();
+        Thread.sleep(5);
+
+        SigningKeyRing rotated = ring(Duration.ZERO, Duration.ofMinutes(5), Duration.ofDays(1));
+
+        // the new key is known to every node before anyone signs with it
+        assertThat(rotated.getActive().id()).isEqualTo(oldId);
+    }
+
+    @Test
+    void dropsKeysOnceTheRetentionHasPassed() throws InterruptedException {
+        String oldId = ring(Duration.ofDays(30), Duration.ZERO, Duration.ZERO).getActive().id();
+        Thread.sleep(5);
+        ring(Duration.ZERO, Duration.ZERO, Duration.ofDays(1));
+        Thread.sleep(5);
+
+        SigningKeyRing ring = ring(Duration.ofDays(30), Duration.ZERO, Duration.ZERO);
+
+        assertThat(ring.getActive().id()).isNotEqualTo(oldId);
+        assertThat(ring.getKey(oldId)).isNull();
+    }
+
+    @Test
+    void refusesABlankPassword() {
+        assertThatThrownBy(() -> new SigningKeyRing(dir.resolve("keys.p12"), " ", SigningAlgorithm.HS256,
+                Duration.ofDays(30), Duration.ZERO, Duration.ofDays(1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private SigningKeyRing ring(Duration rotationInterval, Duration activationDelay, Duration retention) {
+        return new SigningKeyRing(dir.resolve("keys.p12"), PASSWORD, SigningAlgorithm.HS256,
+                rotationInterval, activationDelay, retention);
+    }
+}
@@ -0,0 +1,157 @@
+package com.dileep.JwtVerifier;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the public key for the kid of a token header in the JWK Set of the token service
+ * (GET /.well-known/jwks.json), so tokens are verified locally with no call per request.
+ *
+ * The key set is cached for the max-age the endpoint sends and re-validated with If-None-Match once it is stale.
+ * A kid that isn't in the cache triggers a refetch, at most once per min-refresh-interval, so a flood of
+ * tokens with made-up kids can't turn into a flood of requests to the token service. When the endpoint is down
+ * the last key set stays in use and the next attempt waits min-refresh-interval; the failure goes to the
+ * onFetchFailure listener, the locator itself never logs.
+ *
+ * Lookups of a known kid are one volatile read and a map lookup; only the refreshing thread waits for HTTP.
+ */
+public class JwksKeyLocator extends LocatorAdapter<Key> {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final URI jwksUri;
+    private final Duration minRefreshInterval;
+    private final Duration defaultMaxAge;
+    private final HttpClient httpClient;
+    private final Consumer<? super Exception> onFetchFailure;
+
+    private volatile KeySet keySet = new KeySet(Map.of(), Instant.EPOCH, null);
+    private volatile Instant lastFetch = Instant.EPOCH;
+
+    public JwksKeyLocator(URI jwksUri) {
+        this(jwksUri, Duration.ofSeconds(30), Duration.ofMinutes(2));
+    }
+
+    /**
+     * @param minRefreshInterval least time between two fetches, also the retry delay after a failed one
+     * @param defaultMaxAge      cache time when the response has no max-age
+     */
+    public JwksKeyLocator(URI jwksUri, Duration minRefreshInterval, Duration defaultMaxAge) {
+        this(jwksUri, minRefreshInterval, defaultMaxAge, e -> { });
+    }
+
+    /**
+     * @param onFetchFailure called with the error of every failed fetch, on the fetching thread; must not throw
+     */
+    public JwksKeyLocator(URI jwksUri, Duration minRefreshInterval, Duration defaultMaxAge,
+                          Consumer<? super Exception> onFetchFailure) {
+        this.jwksUri = jwksUri;
+        this.minRefreshInterval = minRefreshInterval;
+        this.defaultMaxAge = defaultMaxAge;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        this.onFetchFailure = onFetchFailure;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            throw new UnsupportedJwtException("Token has no kid");
+        }
+        KeySet current = keySet;
+        if (current.expiresAt.isBefore(Instant.now())) {
+            current = refresh(current);
+        }
+        PublicKey key = current.keys.get(keyId);
+        if (key == null) {
+            // probably a key that was published after our last fetch
+            key = refresh(current).keys.get(keyId);
+        }
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key " + keyId);
+        }
+        return key;
+    }
+
+    /**
+     * the kids currently cached, fetching the key set first if it was never loaded
+     */
+    public Map<String, PublicKey> getKeys() {
+        KeySet current = keySet;
+        return current.expiresAt.equals(Instant.EPOCH) ? refresh(current).keys : current.keys;
+    }
+
+    // one thread fetches, the others wait for it and take its result
+    private synchronized KeySet refresh(KeySet seen) {
+        Instant now = Instant.now();
+        if (keySet != seen || lastFetch.plus(minRefreshInterval).isAfter(now)) {
+            return keySet;
+        }
+        lastFetch = now;
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(jwksUri).timeout(Duration.ofSeconds(2)).GET();
+            if (seen.etag != null) {
+                request.header("If-None-Match", seen.etag);
+            }
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            Instant expiresAt = now.plus(maxAge(response));
+            if (response.statusCode() == 304) {
+                keySet = new KeySet(seen.keys, expiresAt, seen.etag);
+            } else if (response.statusCode() == 200) {
+                keySet = new KeySet(parse(response.body()), expiresAt, response.headers().firstValue("ETag").orElse(null));
+            } else {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+        } catch (IOException | RuntimeException e) {
+            // keep verifying with the keys we have, try again after min-refresh-interval
+            keySet = new KeySet(seen.keys, now.plus(minRefreshInterval), seen.etag);
+            onFetchFailure.accept(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return keySet;
+    }
+
+    private Duration maxAge(HttpResponse<?> response) {
+        String cacheControl = response.headers().firstValue("Cache-Control").orElse("");
+        Matcher matcher = MAX_AGE.matcher(cacheControl);
+        Duration maxAge = matcher.find() ? Duration.ofSeconds(Long.parseLong(matcher.group(1))) : defaultMaxAge;
+        return maxAge.compareTo(minRefreshInterval) < 0 ? minRefreshInterval : maxAge;
+    }
+
+    // signature keys only, anything else in the set is ignored
+    private static Map<String, PublicKey> parse(String json) {
+        JwkSet jwkSet = Jwks.setParser().build().parse(json);
+        Map<String, PublicKey> keys = new HashMap<>();
+        for (Jwk<?> jwk : jwkSet) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null
+                    && (publicJwk.getPublicKeyUse() == null || "sig".equals(publicJwk.getPublicKeyUse()))) {
+                keys.put(jwk.getId(), publicJwk.toKey());
+            }
+        }
+        return Map.copyOf(keys);
+    }
+
+    private record KeySet(Map<String, PublicKey> keys, Instant expiresAt, String etag) {
+    }
+}
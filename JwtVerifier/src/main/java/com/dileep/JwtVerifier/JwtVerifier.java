@@ -0,0 +1,136 @@
+package com.dileep.JwtVerifier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Verifies access tokens of the token service locally: signature against the published public keys,
+ * and expiry. Thread-safe, build one per process and share it.
+ *
+ * A signature check costs around a hundred microseconds, so tokens that passed are cached (bounded, until they
+ * expire) and a client sending the same token again costs a hash and a map lookup, like JwtFilter's verified token
+ * cache. The cache is keyed by a SHA-256 of the token, the token itself is never kept.
+ *
+ * Only EdDSA and ES256 tokens can be verified here; HS256 tokens need the token service's secret and fail with an
+ * unknown kid. Logout revocations are not visible here either, a token stays valid until its exp; access tokens
+ * are short-lived for that reason.
+ */
+public class JwtVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, Claims> verified;
+
+    public JwtVerifier(JwksKeyLocator keyLocator) {
+        this(keyLocator, 10_000);
+    }
+
+    public JwtVerifier(JwksKeyLocator keyLocator, long cacheSize) {
+        this.parser = Jwts.parser()
+                // used as a provider object only, never registered with the JVM
+                .provider(new BouncyCastleProvider())
+                .keyLocator(keyLocator)
+                .build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.getExpiration().toInstant()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * @param jwksUri e.g. http://auth-service:8080/.well-known/jwks.json
+     */
+    public static JwtVerifier forJwks(String jwksUri) {
+        return new JwtVerifier(new JwksKeyLocator(URI.create(jwksUri)));
+    }
+
+    /**
+     * the claims of a valid token; expired, forged or unknown-key tokens throw a JwtException
+     */
+    public Claims verify(String token) throws JwtException {
+        String key = hash(token);
+        Claims claims = verified.getIfPresent(key);
+        // expiry eviction is asynchronous, never hand out an expired entry
+        if (claims != null && claims.getExpiration().toInstant().isAfter(Instant.now())) {
+            return claims;
+        }
+        claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verified.put(key, claims);
+        }
+        return claims;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * the roles claim, the authorities the user had when the token was issued; empty for a compact "perms" token,
+     * read those with the permission dictionary
+     */
+    public static List<String> getRoles(Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        return roles == null ? List.of() : roles.stream().map(String::valueOf).toList();
+    }
+
+    /**
+     * the roles of a token with either claim, dictionary and dictionaryVersion are the token service's
+     * jwt.permissions.dictionary and jwt.permissions.version (bit i of "perms" is dictionary entry i).
+     * A "perms" token minted under another version fails with an UnsupportedJwtException
+     */
+    public static List<String> getRoles(Claims claims, List<String> dictionary, int dictionaryVersion) {
+        String perms = claims.get("perms", String.class);
+        if (perms == null) {
+            return getRoles(claims);
+        }
+        if (!(claims.get("pv") instanceof Number pv) || pv.longValue() != dictionaryVersion) {
+            throw new UnsupportedJwtException("Token permissions use dictionary version " + claims.get("pv")
+                    + ", expected " + dictionaryVersion);
+        }
+        byte[] mask = Base64.getUrlDecoder().decode(perms);
+        List<String> roles = new ArrayList<>();
+        for (int bit = 0; bit < Math.min(mask.length * 8, dictionary.size()); bit++) {
+            if ((mask[bit >>> 3] & (1 << (bit & 7))) != 0) {
+                roles.add(dictionary.get(bit));
+            }
+        }
+        return roles;
+    }
+}
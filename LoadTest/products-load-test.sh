@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+#
+# Load test for the /api/products endpoints, used to compare the platform-thread
+# and the virtual-thread (profile "virtual") execution modes.
+#
+# usage: ./products-load-test.sh <jwt|basic> <mode label> [base url]
+#   e.g. ./products-load-test.sh jwt platform
+#        ./products-load-test.sh jwt virtual
+#
+# needs: curl, hey (https://github.com/rakyll/hey)
+# the user below must exist and have PRODUCT_VIEW, see LoadTest/README.md
+set -euo pipefail
+
+MODULE=${1:?module: jwt or basic}
+MODE=${2:?mode label, e.g. platform or virtual}
+BASE_URL=${3:-http://localhost:8090}
+
+USERNAME=${LOADTEST_USER:-loadtest}
+PASSWORD=${LOADTEST_PASSWORD:-loadtest}
+DURATION=${LOADTEST_DURATION:-30s}
+CONCURRENCY=${LOADTEST_CONCURRENCY:-200}
+RESULTS=${LOADTEST_RESULTS:-results.csv}
+
+if [ "$MODULE" = "jwt" ]; then
+    TOKEN=$(curl -sf -X POST "$BASE_URL/api/User/login" \
+        -H 'Content-Type: application/json' \
+        -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}")
+    AUTH_HEADER="Authorization: Bearer $TOKEN"
+else
+    # form login, the session cookie authenticates the following requests
+    SESSION=$(curl -s -o /dev/null -c - -X POST "$BASE_URL/login" \
+        -d "username=$USERNAME&password=$PASSWORD" | awk '/JSESSIONID/ {print $7}')
+    AUTH_HEADER="Cookie: JSESSIONID=$SESSION"
+fi
+
+[ -f "$RESULTS" ] || echo "module,mode,endpoint,requests_per_sec,p50_ms,p99_ms,non_2xx" > "$RESULTS"
+
+run() {
+    local name=$1 path=$2
+    echo "== $MODULE / $MODE / $name ($CONCURRENCY connections, $DURATION)"
+    local out
+    out=$(hey -z "$DURATION" -c "$CONCURRENCY" -H "$AUTH_HEADER" "$BASE_URL$path")
+    local rps p50 p99 non2xx
+    rps=$(echo "$out" | awk '/Requests\/sec/ {print $2}')
+    p50=$(echo "$out" | awk '/50% in/ {printf "%.1f", $3 * 1000}')
+    p99=$(echo "$out" | awk '/99% in/ {printf "%.1f", $3 * 1000}')
+    non2xx=$(echo "$out" | awk '/\[[0-9]+\]/ && $1 !~ /\[2/ {sum += $2} END {print sum + 0}')
+    echo "$MODULE,$MODE,$name,$rps,$p50,$p99,$non2xx" >> "$RESULTS"
+    echo "   $rps req/s, p50 ${p50} ms, p99 ${p99} ms, non-2xx $non2xx"
+}
+
+if [ "$MODULE" = "jwt" ]; then
+    run list "/api/products?page=0&size=20"
+else
+    run list "/api/products"
+fi
+run by-id "/api/products/getProduct/${LOADTEST_PRODUCT_ID:-1}"
+
+echo
+column -s, -t < "$RESULTS" 2>/dev/null || cat "$RESULTS"